@@ -0,0 +1,14 @@
+package com.academicplatform.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita a execução de tarefas agendadas (@Scheduled), como jobs de reconciliação.
+ * 
+ * @author Felipe Oliveira
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
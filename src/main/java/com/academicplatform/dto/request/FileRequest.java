@@ -36,9 +36,6 @@ public class FileRequest {
     @Positive(message = "Tamanho do arquivo deve ser positivo")
     private Long fileSize;
 
-    @Size(max = 500, message = "Caminho do arquivo deve ter no máximo 500 caracteres")
-    private String filePath;
-
     @Size(max = 1000, message = "Descrição deve ter no máximo 1000 caracteres")
     private String description;
 
@@ -0,0 +1,25 @@
+package com.academicplatform.dto.response;
+
+import com.academicplatform.enums.CommentEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de evento do stream de comentários de um arquivo.
+ * comment é null em eventos DELETED.
+ * 
+ * @author Felipe Oliveira
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommentEventResponse {
+
+    private CommentEventType type;
+    private Long fileId;
+    private Long commentId;
+    private CommentResponse comment;
+}
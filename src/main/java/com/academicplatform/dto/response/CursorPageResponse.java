@@ -0,0 +1,27 @@
+package com.academicplatform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de resposta para listagens paginadas por cursor (keyset).
+ * nextCursor é opaco para o cliente e deve ser reenviado para buscar a próxima página.
+ * 
+ * @author Felipe Oliveira
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private Boolean hasNext;
+    private Long totalElements;
+    private Boolean totalEstimated;
+}
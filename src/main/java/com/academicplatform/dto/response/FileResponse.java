@@ -2,6 +2,7 @@ package com.academicplatform.dto.response;
 
 import com.academicplatform.enums.FileStatus;
 import com.academicplatform.enums.FileType;
+import com.academicplatform.enums.PreviewStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,7 +26,7 @@ public class FileResponse {
     private String fileName;
     private FileType fileType;
     private Long fileSize;
-    private String filePath;
+    private Boolean contentAvailable;
     private String description;
     private Long disciplineId;
     private String disciplineName;
@@ -41,5 +42,8 @@ public class FileResponse {
     private LocalDateTime updatedAt;
     private Long favoritesCount;
     private Long commentsCount;
+    private PreviewStatus previewStatus;
+    private Boolean thumbnailAvailable;
+    private String previewText;
 }
 
@@ -0,0 +1,33 @@
+package com.academicplatform.dto.response;
+
+import com.academicplatform.enums.UploadSessionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO de resposta para sessões de upload em partes.
+ * receivedChunks lista os índices (base 0) das partes já gravadas.
+ * 
+ * @author Felipe Oliveira
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionResponse {
+
+    private String uploadId;
+    private String fileName;
+    private Long fileSize;
+    private Integer chunkSize;
+    private Integer totalChunks;
+    private List<Integer> receivedChunks;
+    private UploadSessionStatus status;
+    private LocalDateTime expiresAt;
+    private Long fileId;
+}
@@ -0,0 +1,42 @@
+package com.academicplatform.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+/**
+ * Termo proibido nos comentários de uma instituição.
+ * O termo é armazenado já normalizado (minúsculas, sem acentos), como é comparado na moderação.
+ * 
+ * @author Felipe Oliveira
+ */
+@Entity
+@Table(name = "banned_terms",
+    uniqueConstraints = @UniqueConstraint(name = "uk_banned_term_institution_term", columnNames = {"institution_id", "term"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false, of = {"institution", "term"})
+@ToString(exclude = "institution")
+public class BannedTerm extends BaseEntity {
+
+    /**
+     * Instituição à qual a lista de termos pertence.
+     */
+    @NotNull(message = "Instituição é obrigatória")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "institution_id", nullable = false, foreignKey = @ForeignKey(name = "fk_banned_term_institution"))
+    private Institution institution;
+
+    /**
+     * Termo normalizado.
+     */
+    @NotBlank(message = "Termo é obrigatório")
+    @Size(max = 100, message = "Termo deve ter no máximo 100 caracteres")
+    @Column(name = "term", nullable = false, length = 100)
+    private String term;
+}
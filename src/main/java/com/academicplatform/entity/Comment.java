@@ -9,6 +9,7 @@ import lombok.*;
 /**
  * Representa um comentário feito por um usuário em um arquivo.
  * Utiliza soft delete (campo active) para moderação sem perder histórico.
+ * O índice parcial de comentários ativos por arquivo é definido nas migrations.
  * 
  * @author Felipe Oliveira
  */
@@ -16,9 +17,7 @@ import lombok.*;
 @Table(name = "comments",
     indexes = {
         @Index(name = "idx_comment_user", columnList = "user_id"),
-        @Index(name = "idx_comment_file", columnList = "file_id"),
-        @Index(name = "idx_comment_active", columnList = "active"),
-        @Index(name = "idx_comment_created", columnList = "created_at")
+        @Index(name = "idx_comment_file_created", columnList = "file_id, created_at, id")
     })
 @Getter
 @Setter
@@ -0,0 +1,82 @@
+package com.academicplatform.entity;
+
+import com.academicplatform.enums.ContentEncoding;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+/**
+ * Conteúdo binário armazenado uma única vez, endereçado pelo hash SHA-256.
+ * Vários arquivos (File) com o mesmo conteúdo apontam para o mesmo blob; referenceCount
+ * registra quantos arquivos o utilizam.
+ * 
+ * @author Felipe Oliveira
+ */
+@Entity
+@Table(name = "content_blobs",
+    uniqueConstraints = @UniqueConstraint(name = "uk_content_blob_sha256", columnNames = "sha256"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false, of = "sha256")
+public class ContentBlob extends BaseEntity {
+
+    /**
+     * Hash SHA-256 do conteúdo em hexadecimal (64 caracteres).
+     */
+    @NotBlank(message = "Hash do conteúdo é obrigatório")
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    /**
+     * Tamanho físico do conteúdo em bytes.
+     */
+    @NotNull(message = "Tamanho do conteúdo é obrigatório")
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    /**
+     * Chave do conteúdo no storage, derivada do hash.
+     */
+    @NotBlank(message = "Chave de storage é obrigatória")
+    @Column(name = "storage_key", nullable = false, length = 500)
+    private String storageKey;
+
+    /**
+     * Quantidade de arquivos que referenciam o conteúdo. Mantida por UPDATE atômico.
+     */
+    @Column(name = "reference_count", nullable = false, updatable = false)
+    private Long referenceCount;
+
+    /**
+     * Tamanho da variante gzip, em bytes. Null se não houver variante.
+     */
+    @Column(name = "gzip_size_bytes")
+    private Long gzipSizeBytes;
+
+    /**
+     * Tamanho da variante zstd, em bytes. Null se não houver variante.
+     */
+    @Column(name = "zstd_size_bytes")
+    private Long zstdSizeBytes;
+
+    /**
+     * Indica se a geração de variantes comprimidas já foi avaliada para este conteúdo.
+     */
+    @Column(name = "compression_checked", nullable = false)
+    @Builder.Default
+    private Boolean compressionChecked = false;
+
+    /**
+     * Tamanho da variante na codificação informada, ou null se ela não existir.
+     */
+    public Long variantSize(ContentEncoding encoding) {
+        return switch (encoding) {
+            case GZIP -> gzipSizeBytes;
+            case ZSTD -> zstdSizeBytes;
+        };
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,15 +13,14 @@ import java.util.List;
 /**
  * Representa uma disciplina/matéria oferecida pela instituição.
  * Organiza arquivos acadêmicos por matéria.
+ * O índice parcial de disciplinas ativas por instituição é definido nas migrations.
  * 
  * @author Felipe Oliveira
  */
 @Entity
 @Table(name = "disciplines",
     indexes = {
-        @Index(name = "idx_discipline_code", columnList = "code"),
-        @Index(name = "idx_discipline_institution", columnList = "institution_id"),
-        @Index(name = "idx_discipline_active", columnList = "active")
+        @Index(name = "idx_discipline_institution_code", columnList = "institution_id, code")
     })
 @Getter
 @Setter
@@ -31,6 +31,8 @@ import java.util.List;
 @ToString(exclude = {"institution", "files"})
 public class Discipline extends BaseEntity {
 
+    private static final long ZERO_USAGE = 0L;
+
     @NotBlank(message = "Nome da disciplina é obrigatório")
     @Size(max = 100, message = "Nome deve ter no máximo 100 caracteres")
     @Column(nullable = false, length = 100)
@@ -59,25 +61,41 @@ public class Discipline extends BaseEntity {
     @Builder.Default
     private Boolean active = true;
 
+    /**
+     * Armazenamento usado pelos arquivos não rejeitados da disciplina, em bytes.
+     * Mantido por UPDATE atômico pelo StorageUsageService, por isso não é sobrescrito quando a entidade é salva.
+     */
+    @Column(name = "storage_used_bytes", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long storageUsedBytes = ZERO_USAGE;
+
+    /**
+     * Quantidade de arquivos não rejeitados da disciplina.
+     * Mantida por UPDATE atômico pelo StorageUsageService, por isso não é sobrescrita quando a entidade é salva.
+     */
+    @Column(name = "files_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long filesCount = ZERO_USAGE;
+
     @OneToMany(mappedBy = "discipline", fetch = FetchType.LAZY)
     @Builder.Default
     private List<File> files = new ArrayList<>();
 
     /**
      * Retorna a quantidade total de arquivos associados à disciplina.
-     * Simplesmente retorna o tamanho da lista de arquivos.
+     * Lê o agregado persistido, sem carregar a coleção de arquivos.
      */
     public long getTotalFilesCount() {
-        return files.size();
+        return filesCount;
     }
 
     /**
-     * Calcula o armazenamento total usado pelos arquivos da disciplina em bytes.
-     * Soma o fileSize de todos os arquivos usando stream.
+     * Retorna o armazenamento total usado pelos arquivos da disciplina em bytes.
+     * Lê o agregado persistido, sem carregar a coleção de arquivos.
      */
     public long getTotalStorageUsed() {
-        return files.stream()
-                .mapToLong(File::getFileSize)
-                .sum();
+        return storageUsedBytes;
     }
 }
@@ -14,7 +14,7 @@ import lombok.*;
 @Table(name = "favorites",
     uniqueConstraints = @UniqueConstraint(name = "uk_favorite_user_file", columnNames = {"user_id", "file_id"}),
     indexes = {
-        @Index(name = "idx_favorite_user", columnList = "user_id"),
+        @Index(name = "idx_favorite_user_created", columnList = "user_id, created_at DESC, file_id DESC"),
         @Index(name = "idx_favorite_file", columnList = "file_id")
     })
 @Getter
@@ -2,12 +2,14 @@ package com.academicplatform.entity;
 
 import com.academicplatform.enums.FileStatus;
 import com.academicplatform.enums.FileType;
+import com.academicplatform.enums.PreviewStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -16,18 +18,20 @@ import java.util.List;
 /**
  * Representa um arquivo acadêmico no sistema.
  * Passa por processo de aprovação antes de ficar disponível.
+ * Índices parciais por status (listagens de aprovados e pendentes) são definidos nas migrations.
  * 
  * @author Felipe Oliveira
  */
 @Entity
 @Table(name = "files",
     indexes = {
-        @Index(name = "idx_file_discipline", columnList = "discipline_id"),
-        @Index(name = "idx_file_institution", columnList = "institution_id"),
+        @Index(name = "idx_file_discipline_status", columnList = "discipline_id, status"),
+        @Index(name = "idx_file_institution_status", columnList = "institution_id, status"),
+        @Index(name = "idx_file_discipline_type", columnList = "discipline_id, file_type"),
         @Index(name = "idx_file_uploaded_by", columnList = "uploaded_by"),
         @Index(name = "idx_file_status", columnList = "status"),
         @Index(name = "idx_file_type", columnList = "file_type"),
-        @Index(name = "idx_file_created", columnList = "created_at")
+        @Index(name = "idx_file_content_blob", columnList = "content_blob_id")
     })
 @Getter
 @Setter
@@ -35,10 +39,11 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @EqualsAndHashCode(callSuper = false)
-@ToString(exclude = {"discipline", "institution", "uploadedBy", "favorites", "comments"})
+@ToString(exclude = {"discipline", "institution", "uploadedBy", "contentBlob", "favorites", "comments"})
 public class File extends BaseEntity {
 
     private static final int ZERO_DOWNLOADS = 0;
+    private static final long ZERO_COUNT = 0L;
 
     @NotBlank(message = "Título é obrigatório")
     @Size(max = 200, message = "Título deve ter no máximo 200 caracteres")
@@ -76,6 +81,13 @@ public class File extends BaseEntity {
     @Column(name = "file_path", length = 500)
     private String filePath;
 
+    /**
+     * Conteúdo deduplicado do arquivo. Null para arquivos registrados apenas com filePath.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_blob_id", foreignKey = @ForeignKey(name = "fk_file_content_blob"))
+    private ContentBlob contentBlob;
+
     @Size(max = 1000, message = "Descrição deve ter no máximo 1000 caracteres")
     @Column(length = 1000)
     private String description;
@@ -116,12 +128,53 @@ public class File extends BaseEntity {
     private FileStatus status = FileStatus.PENDING;
 
     /**
-     * Contador de downloads. Incrementado a cada download bem-sucedido.
+     * Contador de downloads. Incrementado em lote pelo DownloadCounterService,
+     * por isso não é sobrescrito quando a entidade é salva.
      */
-    @Column(name = "download_count", nullable = false)
+    @Column(name = "download_count", nullable = false, updatable = false)
     @Builder.Default
     private Integer downloadCount = ZERO_DOWNLOADS;
 
+    /**
+     * Quantidade de favoritos do arquivo. Mantida de forma incremental por UPDATE atômico,
+     * por isso não é sobrescrita quando a entidade é salva.
+     */
+    @Column(name = "favorites_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long favoritesCount = ZERO_COUNT;
+
+    /**
+     * Quantidade de comentários ativos do arquivo. Mantida de forma incremental por UPDATE atômico,
+     * por isso não é sobrescrita quando a entidade é salva.
+     */
+    @Column(name = "comments_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long commentsCount = ZERO_COUNT;
+
+    /**
+     * Situação da prévia (miniatura/trecho) gerada em segundo plano pelo FilePreviewService.
+     * Atualizada apenas por UPDATE direto, por isso não é sobrescrita quando a entidade é salva.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "preview_status", nullable = false, length = 20, updatable = false)
+    @ColumnDefault("'NOT_AVAILABLE'")
+    @Builder.Default
+    private PreviewStatus previewStatus = PreviewStatus.NOT_AVAILABLE;
+
+    /**
+     * Chave no storage da miniatura, gravada ao lado do conteúdo. Apenas para imagens.
+     */
+    @Column(name = "thumbnail_path", length = 500, updatable = false)
+    private String thumbnailPath;
+
+    /**
+     * Trecho inicial do texto (primeira página em PDFs). Apenas para TXT e PDF.
+     */
+    @Column(name = "preview_text", length = 1000, updatable = false)
+    private String previewText;
+
     /**
      * Data de aprovação. Definida quando status muda para APPROVED.
      */
@@ -184,14 +237,6 @@ public class File extends BaseEntity {
         this.status = FileStatus.REJECTED;
     }
 
-    /**
-     * Incrementa o contador de downloads em 1.
-     * Chamado a cada download bem-sucedido do arquivo.
-     */
-    public void incrementDownloadCount() {
-        this.downloadCount++;
-    }
-
     /**
      * Extrai a extensão do arquivo do fileName.
      * Busca o último ponto e retorna o texto após ele em minúsculas.
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -37,6 +38,8 @@ public class Institution extends BaseEntity {
 
     private static final int DEFAULT_MAX_USERS = 10;
     private static final int DEFAULT_MAX_STORAGE_GB = 5;
+    private static final long ZERO_USAGE = 0L;
+    private static final long BYTES_PER_GB = 1024L * 1024L * 1024L;
 
     @NotBlank(message = "Nome da instituição é obrigatório")
     @Size(max = 100, message = "Nome deve ter no máximo 100 caracteres")
@@ -86,6 +89,24 @@ public class Institution extends BaseEntity {
     @Builder.Default
     private Boolean active = true;
 
+    /**
+     * Armazenamento usado pelos arquivos não rejeitados da instituição, em bytes.
+     * Mantido por UPDATE atômico pelo StorageUsageService, por isso não é sobrescrito quando a entidade é salva.
+     */
+    @Column(name = "storage_used_bytes", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long storageUsedBytes = ZERO_USAGE;
+
+    /**
+     * Quantidade de arquivos não rejeitados da instituição.
+     * Mantida por UPDATE atômico pelo StorageUsageService, por isso não é sobrescrita quando a entidade é salva.
+     */
+    @Column(name = "files_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long filesCount = ZERO_USAGE;
+
     @OneToMany(mappedBy = "institution", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     @Builder.Default
     private List<User> users = new ArrayList<>();
@@ -111,14 +132,10 @@ public class Institution extends BaseEntity {
     }
 
     /**
-     * Calcula o armazenamento total usado pela instituição em GB.
-     * Percorre todas as disciplinas, seus arquivos e soma os tamanhos.
-     * Converte bytes para GB dividindo por (1024 * 1024 * 1024).
+     * Retorna o armazenamento total usado pela instituição em GB.
+     * Lê o agregado persistido em bytes e converte dividindo por (1024 * 1024 * 1024).
      */
     public long getTotalStorageUsed() {
-        return disciplines.stream()
-                .flatMap(d -> d.getFiles().stream())
-                .mapToLong(File::getFileSize)
-                .sum() / (1024L * 1024L * 1024L);
+        return storageUsedBytes / BYTES_PER_GB;
     }
 }
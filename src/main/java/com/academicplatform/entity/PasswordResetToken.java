@@ -0,0 +1,61 @@
+package com.academicplatform.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token de recuperação de senha.
+ * Apenas o hash SHA-256 do token é armazenado; o valor em claro é entregue uma única vez ao usuário.
+ * Cada usuário tem no máximo um token ativo, removido ao ser usado.
+ * 
+ * @author Felipe Oliveira
+ */
+@Entity
+@Table(name = "password_reset_tokens",
+    uniqueConstraints = @UniqueConstraint(name = "uk_password_reset_token_hash", columnNames = "token_hash"),
+    indexes = {
+        @Index(name = "idx_password_reset_token_user", columnList = "user_id"),
+        @Index(name = "idx_password_reset_token_expires", columnList = "expires_at")
+    })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false, of = "tokenHash")
+@ToString(exclude = {"user", "tokenHash"})
+public class PasswordResetToken extends BaseEntity {
+
+    /**
+     * Usuário que solicitou a recuperação.
+     */
+    @NotNull(message = "Usuário é obrigatório")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_password_reset_token_user"))
+    private User user;
+
+    /**
+     * Hash SHA-256 do token, em hexadecimal.
+     */
+    @NotBlank(message = "Hash do token é obrigatório")
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    /**
+     * Data de expiração. O token só é aceito antes desta data.
+     */
+    @NotNull(message = "Expiração é obrigatória")
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Verifica se o token já expirou.
+     */
+    public boolean isExpired() {
+        return !expiresAt.isAfter(LocalDateTime.now());
+    }
+}
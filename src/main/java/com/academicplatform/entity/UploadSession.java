@@ -0,0 +1,132 @@
+package com.academicplatform.entity;
+
+import com.academicplatform.enums.FileType;
+import com.academicplatform.enums.UploadSessionStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sessão de upload em partes (resumable upload).
+ * Guarda os metadados do arquivo até a finalização; as partes ficam no storage,
+ * em uploads/{uploadId}/{índice}, e são a fonte de verdade sobre o que já foi recebido.
+ * 
+ * @author Felipe Oliveira
+ */
+@Entity
+@Table(name = "upload_sessions",
+    uniqueConstraints = @UniqueConstraint(name = "uk_upload_session_upload_id", columnNames = "upload_id"),
+    indexes = {
+        @Index(name = "idx_upload_session_expires", columnList = "expires_at")
+    })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false, of = "uploadId")
+@ToString(exclude = {"uploadedBy", "discipline", "file"})
+public class UploadSession extends BaseEntity {
+
+    /**
+     * Identificador público e não sequencial da sessão.
+     */
+    @NotBlank(message = "Identificador da sessão é obrigatório")
+    @Column(name = "upload_id", nullable = false, length = 36)
+    private String uploadId;
+
+    @NotNull(message = "Usuário que fez upload é obrigatório")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploaded_by", nullable = false, foreignKey = @ForeignKey(name = "fk_upload_session_user"))
+    private User uploadedBy;
+
+    @NotNull(message = "Disciplina é obrigatória")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "discipline_id", nullable = false, foreignKey = @ForeignKey(name = "fk_upload_session_discipline"))
+    private Discipline discipline;
+
+    @NotBlank(message = "Título é obrigatório")
+    @Size(max = 200, message = "Título deve ter no máximo 200 caracteres")
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @NotBlank(message = "Nome do arquivo é obrigatório")
+    @Size(max = 500, message = "Nome do arquivo deve ter no máximo 500 caracteres")
+    @Column(name = "file_name", nullable = false, length = 500)
+    private String fileName;
+
+    @NotNull(message = "Tipo do arquivo é obrigatório")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "file_type", nullable = false, length = 50)
+    private FileType fileType;
+
+    @Size(max = 1000, message = "Descrição deve ter no máximo 1000 caracteres")
+    @Column(length = 1000)
+    private String description;
+
+    @Size(max = 20, message = "Versão deve ter no máximo 20 caracteres")
+    @Column(length = 20)
+    private String version;
+
+    /**
+     * Tamanho total declarado do arquivo, em bytes.
+     */
+    @NotNull(message = "Tamanho do arquivo é obrigatório")
+    @Positive(message = "Tamanho do arquivo deve ser positivo")
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    /**
+     * Tamanho de cada parte, em bytes. Apenas a última parte pode ser menor.
+     */
+    @NotNull
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    @NotNull
+    @Column(name = "total_chunks", nullable = false)
+    private Integer totalChunks;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private UploadSessionStatus status;
+
+    /**
+     * Após esta data a sessão não aceita partes e é removida pela limpeza periódica.
+     */
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Início da finalização em andamento (status COMPLETING). Identifica a requisição que detém a
+     * finalização; uma finalização parada há mais tempo que o limite pode ser assumida por outra.
+     */
+    @Column(name = "completion_started_at")
+    private LocalDateTime completionStartedAt;
+
+    /**
+     * Arquivo criado na finalização da sessão.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "file_id", foreignKey = @ForeignKey(name = "fk_upload_session_file"))
+    private File file;
+
+    /**
+     * Tamanho esperado da parte informada.
+     */
+    public long expectedChunkSize(int index) {
+        long start = (long) index * chunkSize;
+        return Math.min(chunkSize, fileSize - start);
+    }
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(LocalDateTime.now());
+    }
+}
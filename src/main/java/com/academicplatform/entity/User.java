@@ -15,6 +15,8 @@ import java.util.List;
 /**
  * Representa um usuário do sistema acadêmico.
  * Vinculado a uma instituição para isolamento multi-tenant.
+ * Índices parciais (usuários ativos) são definidos nas migrations.
+ * Tokens de recuperação de senha ficam em PasswordResetToken.
  * 
  * @author Felipe Oliveira
  */
@@ -22,9 +24,7 @@ import java.util.List;
 @Table(name = "users", 
     uniqueConstraints = @UniqueConstraint(name = "uk_user_email", columnNames = "email"),
     indexes = {
-        @Index(name = "idx_user_email", columnList = "email"),
-        @Index(name = "idx_user_institution", columnList = "institution_id"),
-        @Index(name = "idx_user_active", columnList = "active"),
+        @Index(name = "idx_user_institution_role", columnList = "institution_id, role"),
         @Index(name = "idx_user_role", columnList = "role")
     })
 @Getter
@@ -79,23 +79,12 @@ public class User extends BaseEntity {
     private Boolean active = true;
 
     /**
-     * Data do último login bem-sucedido. Atualizada após autenticação.
+     * Data do último login bem-sucedido.
+     * Gravada em batch pelo LastLoginService; não é alterada pelo flush da entidade.
      */
+    @Column(name = "last_login", updatable = false)
     private LocalDateTime lastLogin;
 
-    /**
-     * Token temporário para recuperação de senha. Gerado ao solicitar reset.
-     */
-    @Size(max = 255)
-    @Column(name = "reset_token", length = 255)
-    private String resetToken;
-
-    /**
-     * Data de expiração do token de reset. Token válido apenas até esta data.
-     */
-    @Column(name = "reset_token_expires")
-    private LocalDateTime resetTokenExpires;
-
     @OneToMany(mappedBy = "uploadedBy", fetch = FetchType.LAZY)
     @Builder.Default
     private List<File> uploadedFiles = new ArrayList<>();
@@ -132,16 +121,6 @@ public class User extends BaseEntity {
         return role == UserRole.STUDENT;
     }
 
-    /**
-     * Verifica se o token de reset de senha é válido.
-     * Valida se o token existe, se expiresAt não é null e se ainda não expirou.
-     */
-    public boolean hasResetTokenValid() {
-        return resetToken != null && 
-               resetTokenExpires != null && 
-               resetTokenExpires.isAfter(LocalDateTime.now());
-    }
-
     /**
      * Atualiza a data do último login para o momento atual.
      * Chamado após login bem-sucedido para auditoria.
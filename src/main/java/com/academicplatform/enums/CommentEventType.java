@@ -0,0 +1,11 @@
+package com.academicplatform.enums;
+
+/**
+ * Tipos de evento enviados no stream de comentários de um arquivo.
+ * DELETED corresponde ao soft delete (comentário desativado).
+ * 
+ * @author Felipe Oliveira
+ */
+public enum CommentEventType {
+    CREATED, UPDATED, DELETED
+}
@@ -0,0 +1,31 @@
+package com.academicplatform.enums;
+
+/**
+ * Codificações de conteúdo (HTTP Content-Encoding) das variantes pré-comprimidas.
+ * Cada variante fica no storage com a chave do conteúdo original mais o sufixo.
+ * 
+ * @author Felipe Oliveira
+ */
+public enum ContentEncoding {
+    ZSTD("zstd", ".zst"),
+    GZIP("gzip", ".gz");
+
+    private final String token;
+    private final String keySuffix;
+
+    ContentEncoding(String token, String keySuffix) {
+        this.token = token;
+        this.keySuffix = keySuffix;
+    }
+
+    /**
+     * Valor usado nos headers Accept-Encoding e Content-Encoding.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    public String getKeySuffix() {
+        return keySuffix;
+    }
+}
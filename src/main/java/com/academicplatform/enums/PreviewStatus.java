@@ -0,0 +1,12 @@
+package com.academicplatform.enums;
+
+/**
+ * Situação da prévia de um arquivo (miniatura ou trecho de texto).
+ * Fluxo: PENDING → READY (gerada) ou FAILED (erro na geração).
+ * NOT_AVAILABLE indica tipo sem prévia ou arquivo sem conteúdo no storage.
+ * 
+ * @author Felipe Oliveira
+ */
+public enum PreviewStatus {
+    PENDING, READY, FAILED, NOT_AVAILABLE
+}
@@ -0,0 +1,13 @@
+package com.academicplatform.enums;
+
+/**
+ * Modo de cálculo do total em listagens paginadas por cursor.
+ * NONE: não calcula o total (mais rápido).
+ * EXACT: executa COUNT sobre os registros filtrados.
+ * ESTIMATED: usa a estimativa do planejador do banco, sem varrer a tabela.
+ * 
+ * @author Felipe Oliveira
+ */
+public enum TotalCountMode {
+    NONE, EXACT, ESTIMATED
+}
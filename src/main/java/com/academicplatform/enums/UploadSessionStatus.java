@@ -0,0 +1,13 @@
+package com.academicplatform.enums;
+
+/**
+ * Status de uma sessão de upload em partes.
+ * Fluxo: ACTIVE (recebendo partes) → COMPLETING (partes sendo concatenadas) → COMPLETED (arquivo criado).
+ * Se a finalização falhar, a sessão volta para ACTIVE. Sessões não concluídas que expiram
+ * são removidas junto com suas partes.
+ * 
+ * @author Felipe Oliveira
+ */
+public enum UploadSessionStatus {
+    ACTIVE, COMPLETING, COMPLETED
+}
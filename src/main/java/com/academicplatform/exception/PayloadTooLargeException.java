@@ -0,0 +1,17 @@
+package com.academicplatform.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception lançada quando o conteúdo enviado ultrapassa o tamanho declarado ou permitido (HTTP 413).
+ * 
+ * @author Felipe Oliveira
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class PayloadTooLargeException extends BusinessException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
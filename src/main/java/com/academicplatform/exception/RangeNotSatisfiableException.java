@@ -0,0 +1,32 @@
+package com.academicplatform.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception lançada quando o intervalo de bytes pedido (header Range) não pode ser atendido
+ * para o tamanho do conteúdo (HTTP 416). Guarda o tamanho total para o header Content-Range da resposta.
+ * 
+ * @author Felipe Oliveira
+ */
+@ResponseStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+public class RangeNotSatisfiableException extends BusinessException {
+
+    private final long totalSize;
+
+    public RangeNotSatisfiableException(String message, long totalSize) {
+        super(message);
+        this.totalSize = totalSize;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * Valor do header Content-Range da resposta 416, informando apenas o tamanho total do conteúdo.
+     */
+    public String toContentRange() {
+        return "bytes */" + totalSize;
+    }
+}
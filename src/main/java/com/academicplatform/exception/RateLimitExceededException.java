@@ -0,0 +1,17 @@
+package com.academicplatform.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception lançada quando o limite de tentativas de uma operação é excedido (HTTP 429).
+ * 
+ * @author Felipe Oliveira
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends RuntimeException {
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
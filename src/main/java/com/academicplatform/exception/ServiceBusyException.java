@@ -0,0 +1,18 @@
+package com.academicplatform.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception lançada quando um recurso limitado está saturado e a requisição é recusada
+ * imediatamente; o cliente deve tentar novamente mais tarde (HTTP 503).
+ * 
+ * @author Felipe Oliveira
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.academicplatform.exception;
+
+/**
+ * Exception lançada quando uma operação no storage de arquivos falha.
+ * 
+ * @author Felipe Oliveira
+ */
+public class StorageException extends RuntimeException {
+
+    public StorageException(String message) {
+        super(message);
+    }
+
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
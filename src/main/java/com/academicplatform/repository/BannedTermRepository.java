@@ -0,0 +1,38 @@
+package com.academicplatform.repository;
+
+import com.academicplatform.entity.BannedTerm;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositório para operações de persistência da entidade BannedTerm.
+ * 
+ * @author Felipe Oliveira
+ */
+@Repository
+public interface BannedTermRepository extends JpaRepository<BannedTerm, Long> {
+
+    /**
+     * Lista os termos proibidos de uma instituição, em ordem alfabética.
+     */
+    @Query("SELECT t.term FROM BannedTerm t WHERE t.institution.id = :institutionId ORDER BY t.term")
+    List<String> findTermsByInstitutionId(@Param("institutionId") Long institutionId);
+
+    /**
+     * Verifica se o termo já está na lista da instituição.
+     */
+    boolean existsByInstitutionIdAndTerm(Long institutionId, String term);
+
+    /**
+     * Remove o termo da lista da instituição sem carregar a entidade.
+     * Retorna a quantidade de linhas removidas.
+     */
+    @Modifying
+    @Query("DELETE FROM BannedTerm t WHERE t.institution.id = :institutionId AND t.term = :term")
+    int deleteByInstitutionIdAndTerm(@Param("institutionId") Long institutionId, @Param("term") String term);
+}
@@ -1,13 +1,17 @@
 package com.academicplatform.repository;
 
+import com.academicplatform.dto.response.CommentResponse;
 import com.academicplatform.entity.Comment;
 import com.academicplatform.entity.File;
 import com.academicplatform.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -18,6 +22,17 @@ import java.util.List;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    /**
+     * SELECT base que monta CommentResponse dos comentários ativos de um arquivo.
+     * Junta apenas o autor; o título do arquivo (fileName) é preenchido uma vez por página pelo service.
+     */
+    String ACTIVE_COMMENT_RESPONSE_SELECT = "SELECT new com.academicplatform.dto.response.CommentResponse("
+            + "c.id, c.content, u.id, u.name, c.file.id, cast(null as String), c.active, c.createdAt, c.updatedAt) "
+            + "FROM Comment c JOIN c.user u WHERE c.file.id = :fileId AND c.active = true ";
+
+    String NEWEST_FIRST = "ORDER BY c.createdAt DESC, c.id DESC";
+    String OLDEST_FIRST = "ORDER BY c.createdAt ASC, c.id ASC";
+
     /**
      * Busca comentários de um arquivo.
      */
@@ -50,6 +65,42 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @Query("SELECT c FROM Comment c WHERE c.file = :file AND c.active = true ORDER BY c.createdAt ASC")
     List<Comment> findActiveCommentsByFileOrderByCreatedAtAsc(@Param("file") File file);
 
+    /**
+     * Lista comentários ativos de um arquivo como projeção, mais antigos primeiro.
+     */
+    @Query(ACTIVE_COMMENT_RESPONSE_SELECT + OLDEST_FIRST)
+    List<CommentResponse> findActiveCommentResponsesByFile(@Param("fileId") Long fileId);
+
+    /**
+     * Primeira página de comentários ativos, mais recentes primeiro (paginação por cursor).
+     */
+    @Query(ACTIVE_COMMENT_RESPONSE_SELECT + NEWEST_FIRST)
+    List<CommentResponse> findFirstNewestActiveCommentResponses(@Param("fileId") Long fileId, Limit limit);
+
+    /**
+     * Próxima página de comentários ativos, mais recentes primeiro: comentários anteriores à posição.
+     */
+    @Query(ACTIVE_COMMENT_RESPONSE_SELECT + "AND (c.createdAt, c.id) < (:createdAt, :id) " + NEWEST_FIRST)
+    List<CommentResponse> findNewestActiveCommentResponsesBefore(@Param("fileId") Long fileId,
+                                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                                 @Param("id") Long id,
+                                                                 Limit limit);
+
+    /**
+     * Primeira página de comentários ativos, mais antigos primeiro (paginação por cursor).
+     */
+    @Query(ACTIVE_COMMENT_RESPONSE_SELECT + OLDEST_FIRST)
+    List<CommentResponse> findFirstOldestActiveCommentResponses(@Param("fileId") Long fileId, Limit limit);
+
+    /**
+     * Próxima página de comentários ativos, mais antigos primeiro: comentários posteriores à posição.
+     */
+    @Query(ACTIVE_COMMENT_RESPONSE_SELECT + "AND (c.createdAt, c.id) > (:createdAt, :id) " + OLDEST_FIRST)
+    List<CommentResponse> findOldestActiveCommentResponsesAfter(@Param("fileId") Long fileId,
+                                                                @Param("createdAt") LocalDateTime createdAt,
+                                                                @Param("id") Long id,
+                                                                Limit limit);
+
     /**
      * Conta comentários ativos de um arquivo.
      */
@@ -61,5 +112,12 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      */
     @Query("SELECT COUNT(c) FROM Comment c WHERE c.user = :user")
     long countByUser(@Param("user") User user);
-}
 
+    /**
+     * Desativa o comentário apenas se ele ainda estiver ativo.
+     * Retorna 1 se esta chamada o desativou, 0 se já estava inativo (ex: exclusão concorrente).
+     */
+    @Modifying
+    @Query("UPDATE Comment c SET c.active = false WHERE c.id = :id AND c.active = true")
+    int deactivate(@Param("id") Long id);
+}
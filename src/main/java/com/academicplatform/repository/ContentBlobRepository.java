@@ -0,0 +1,103 @@
+package com.academicplatform.repository;
+
+import com.academicplatform.entity.ContentBlob;
+import com.academicplatform.enums.FileType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório para operações de persistência da entidade ContentBlob.
+ * 
+ * @author Felipe Oliveira
+ */
+@Repository
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, Long> {
+
+    /**
+     * Busca blob pelo hash SHA-256 do conteúdo.
+     */
+    Optional<ContentBlob> findBySha256(String sha256);
+
+    /**
+     * Registra uma referência ao conteúdo: cria o blob com uma referência ou, se o hash já existir,
+     * incrementa a contagem atomicamente. Seguro para uploads simultâneos do mesmo conteúdo.
+     * Retorna o ID do blob.
+     */
+    @Query(value = "INSERT INTO content_blobs (sha256, size_bytes, storage_key, reference_count, created_at, updated_at) "
+            + "VALUES (:sha256, :sizeBytes, :storageKey, 1, now(), now()) "
+            + "ON CONFLICT (sha256) DO UPDATE SET reference_count = content_blobs.reference_count + 1, updated_at = now() "
+            + "RETURNING id", nativeQuery = true)
+    Long addReference(@Param("sha256") String sha256, @Param("sizeBytes") long sizeBytes,
+                      @Param("storageKey") String storageKey);
+
+    /**
+     * Registra as variantes comprimidas geradas para o conteúdo (null = variante descartada).
+     * Retorna 0 se o conteúdo não existe mais.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ContentBlob b SET b.gzipSizeBytes = :gzipSizeBytes, b.zstdSizeBytes = :zstdSizeBytes, "
+            + "b.compressionChecked = true WHERE b.id = :id")
+    int saveVariants(@Param("id") Long id, @Param("gzipSizeBytes") Long gzipSizeBytes,
+                     @Param("zstdSizeBytes") Long zstdSizeBytes);
+
+    /**
+     * IDs dos conteúdos ainda não avaliados para compressão, usados por algum arquivo de tipo compressível.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT b.id FROM ContentBlob b WHERE b.compressionChecked = false AND b.sizeBytes <= :maxSizeBytes "
+            + "AND EXISTS (SELECT 1 FROM File f WHERE f.contentBlob = b AND f.fileType IN :fileTypes) ORDER BY b.id")
+    List<Long> findIdsPendingCompression(@Param("fileTypes") Collection<FileType> fileTypes,
+                                         @Param("maxSizeBytes") long maxSizeBytes, Limit limit);
+
+    /**
+     * Soma o tamanho físico de todos os conteúdos armazenados (sem duplicatas).
+     */
+    @Query("SELECT COALESCE(SUM(b.sizeBytes), 0) FROM ContentBlob b")
+    long sumPhysicalBytes();
+
+    /**
+     * Bloqueia o hash do conteúdo até o fim da transação corrente (advisory lock do PostgreSQL).
+     * Serializa ingestão, limpeza em rollback e coleta de um mesmo conteúdo, que criam ou removem
+     * o objeto no storage.
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtextextended(:sha256, 0))) l", nativeQuery = true)
+    Integer lockContent(@Param("sha256") String sha256);
+
+    /**
+     * Recalcula reference_count a partir dos arquivos que apontam para cada conteúdo.
+     * Atualiza apenas os divergentes e retorna quantos foram corrigidos (drift).
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE content_blobs b SET reference_count = s.refs "
+            + "FROM (SELECT b2.id, (SELECT COUNT(*) FROM files f WHERE f.content_blob_id = b2.id) AS refs "
+            + "FROM content_blobs b2) s "
+            + "WHERE b.id = s.id AND b.reference_count <> s.refs", nativeQuery = true)
+    int reconcileReferenceCounts();
+
+    /**
+     * IDs dos conteúdos sem referências, após o ID informado, em ordem crescente.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT b.id FROM ContentBlob b WHERE b.referenceCount = 0 AND b.id > :afterId ORDER BY b.id")
+    List<Long> findUnreferencedIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Remove o conteúdo se ele continuar sem referências e nenhum arquivo apontar para ele.
+     * Retorna 1 se removido.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM content_blobs b WHERE b.id = :id AND b.reference_count = 0 "
+            + "AND NOT EXISTS (SELECT 1 FROM files f WHERE f.content_blob_id = b.id)", nativeQuery = true)
+    int deleteIfUnreferenced(@Param("id") Long id);
+}
@@ -3,9 +3,11 @@ package com.academicplatform.repository;
 import com.academicplatform.entity.Discipline;
 import com.academicplatform.entity.Institution;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -49,5 +51,26 @@ public interface DisciplineRepository extends JpaRepository<Discipline, Long> {
      */
     @Query("SELECT COUNT(d) FROM Discipline d WHERE d.institution = :institution AND d.active = true")
     long countActiveDisciplinesByInstitution(@Param("institution") Institution institution);
-}
 
+    /**
+     * Soma deltas ao armazenamento usado e à quantidade de arquivos da disciplina de forma atômica.
+     */
+    @Modifying
+    @Query("UPDATE Discipline d SET d.storageUsedBytes = d.storageUsedBytes + :bytes, "
+            + "d.filesCount = d.filesCount + :files WHERE d.id = :id")
+    int addStorageUsage(@Param("id") Long id, @Param("bytes") long bytes, @Param("files") long files);
+
+    /**
+     * Recalcula armazenamento e quantidade de arquivos das disciplinas de uma instituição.
+     * Arquivos rejeitados não contam. Atualiza apenas as linhas divergentes e retorna quantas foram corrigidas.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE disciplines d SET storage_used_bytes = s.bytes, files_count = s.files "
+            + "FROM (SELECT d2.id, COALESCE(SUM(f.file_size), 0) AS bytes, COUNT(f.id) AS files "
+            + "FROM disciplines d2 LEFT JOIN files f ON f.discipline_id = d2.id AND f.status <> 'REJECTED' "
+            + "WHERE d2.institution_id = :institutionId GROUP BY d2.id) s "
+            + "WHERE d.id = s.id AND (d.storage_used_bytes <> s.bytes OR d.files_count <> s.files)",
+            nativeQuery = true)
+    int reconcileStorageUsageByInstitution(@Param("institutionId") Long institutionId);
+}
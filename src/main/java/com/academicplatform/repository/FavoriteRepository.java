@@ -3,11 +3,14 @@ package com.academicplatform.repository;
 import com.academicplatform.entity.Favorite;
 import com.academicplatform.entity.File;
 import com.academicplatform.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,6 +43,37 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
      */
     boolean existsByUserAndFile(User user, File file);
 
+    /**
+     * Cria os favoritos do usuário para os arquivos informados e incrementa favorites_count
+     * dos arquivos afetados, em um único statement. Favoritos já existentes (uk_favorite_user_file),
+     * arquivos e usuário inexistentes são ignorados. Retorna os IDs dos arquivos adicionados.
+     */
+    @Query(value = "WITH inserted AS ("
+            + "INSERT INTO favorites (user_id, file_id, created_at, updated_at) "
+            + "SELECT u.id, f.id, now(), now() FROM users u JOIN files f ON f.id IN (:fileIds) WHERE u.id = :userId "
+            + "ON CONFLICT ON CONSTRAINT uk_favorite_user_file DO NOTHING RETURNING file_id), "
+            + "counted AS (UPDATE files SET favorites_count = favorites_count + 1 "
+            + "WHERE id IN (SELECT file_id FROM inserted)) "
+            + "SELECT file_id FROM inserted", nativeQuery = true)
+    List<Long> insertFavorites(@Param("userId") Long userId, @Param("fileIds") Collection<Long> fileIds);
+
+    /**
+     * Remove os favoritos do usuário para os arquivos informados e decrementa favorites_count
+     * dos arquivos afetados, em um único statement. Retorna os IDs dos arquivos removidos.
+     */
+    @Query(value = "WITH deleted AS ("
+            + "DELETE FROM favorites WHERE user_id = :userId AND file_id IN (:fileIds) RETURNING file_id), "
+            + "counted AS (UPDATE files SET favorites_count = favorites_count - 1 "
+            + "WHERE id IN (SELECT file_id FROM deleted)) "
+            + "SELECT file_id FROM deleted", nativeQuery = true)
+    List<Long> deleteFavorites(@Param("userId") Long userId, @Param("fileIds") Collection<Long> fileIds);
+
+    /**
+     * IDs dos arquivos favoritados pelo usuário, sem carregar as entidades.
+     */
+    @Query("SELECT fav.file.id FROM Favorite fav WHERE fav.user.id = :userId")
+    List<Long> findFileIdsByUserId(@Param("userId") Long userId);
+
     /**
      * Conta quantos usuários favoritaram um arquivo.
      */
@@ -52,6 +86,42 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     @Query("SELECT COUNT(f) FROM Favorite f WHERE f.user = :user")
     long countByUser(@Param("user") User user);
 
+    /**
+     * SELECT base dos arquivos favoritos de um usuário: cada linha traz o FileResponse
+     * e a data em que o arquivo foi favoritado (usada no cursor).
+     */
+    String FAVORITE_FILE_SELECT = "SELECT " + FileRepository.FILE_RESPONSE_CONSTRUCTOR + ", fav.createdAt "
+            + "FROM Favorite fav JOIN fav.file f " + FileRepository.FILE_RESPONSE_JOINS
+            + "WHERE fav.user.id = :userId ";
+
+    /**
+     * Ordenação das listagens de favoritos: mais recentes primeiro.
+     * O ID do arquivo desempata, pois é único por usuário.
+     */
+    String FAVORITE_FILE_ORDER = "ORDER BY fav.createdAt DESC, f.id DESC";
+
+    /**
+     * Lista todos os arquivos favoritos do usuário em consulta única.
+     * Cada linha: [FileResponse, data do favorito].
+     */
+    @Query(FAVORITE_FILE_SELECT + FAVORITE_FILE_ORDER)
+    List<Object[]> findFavoriteFileRowsByUser(@Param("userId") Long userId);
+
+    /**
+     * Primeira página dos arquivos favoritos do usuário (paginação por cursor).
+     */
+    @Query(FAVORITE_FILE_SELECT + FAVORITE_FILE_ORDER)
+    List<Object[]> findFirstFavoriteFileRowsByUser(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Próxima página dos arquivos favoritos do usuário, após a posição (data do favorito, ID do arquivo).
+     */
+    @Query(FAVORITE_FILE_SELECT + "AND (fav.createdAt, f.id) < (:createdAt, :fileId) " + FAVORITE_FILE_ORDER)
+    List<Object[]> findFavoriteFileRowsByUserAfter(@Param("userId") Long userId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("fileId") Long fileId,
+                                                   Limit limit);
+
     /**
      * Busca favoritos de um usuário ordenados por data de criação (mais recentes primeiro).
      */
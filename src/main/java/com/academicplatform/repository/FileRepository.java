@@ -1,19 +1,27 @@
 package com.academicplatform.repository;
 
+import com.academicplatform.dto.response.FileResponse;
 import com.academicplatform.entity.Discipline;
 import com.academicplatform.entity.File;
 import com.academicplatform.entity.Institution;
 import com.academicplatform.entity.User;
 import com.academicplatform.enums.FileStatus;
 import com.academicplatform.enums.FileType;
+import com.academicplatform.enums.PreviewStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositório para operações de persistência da entidade File.
@@ -21,7 +29,30 @@ import java.util.List;
  * @author Felipe Oliveira
  */
 @Repository
-public interface FileRepository extends JpaRepository<File, Long> {
+public interface FileRepository extends JpaRepository<File, Long>, FileRepositoryCustom {
+
+    /**
+     * Expressão que monta FileResponse a partir do arquivo f e das junções d, i e u (FILE_RESPONSE_JOINS).
+     */
+    String FILE_RESPONSE_CONSTRUCTOR = "new com.academicplatform.dto.response.FileResponse("
+            + "f.id, f.title, f.fileName, f.fileType, f.fileSize, "
+            + "CASE WHEN f.filePath IS NOT NULL THEN true ELSE false END, f.description, "
+            + "d.id, d.name, i.id, i.name, u.id, u.name, "
+            + "f.status, f.downloadCount, f.approvedAt, f.version, f.createdAt, f.updatedAt, "
+            + "f.favoritesCount, f.commentsCount, f.previewStatus, "
+            + "CASE WHEN f.thumbnailPath IS NOT NULL THEN true ELSE false END, f.previewText)";
+
+    /**
+     * Junções de File necessárias para FILE_RESPONSE_CONSTRUCTOR.
+     */
+    String FILE_RESPONSE_JOINS = "JOIN f.discipline d JOIN f.institution i JOIN f.uploadedBy u ";
+
+    /**
+     * SELECT base que monta FileResponse em uma única consulta.
+     * Junta disciplina, instituição e autor e lê os contadores desnormalizados,
+     * evitando lazy loading e contagens por arquivo.
+     */
+    String FILE_RESPONSE_SELECT = "SELECT " + FILE_RESPONSE_CONSTRUCTOR + " FROM File f " + FILE_RESPONSE_JOINS;
 
     /**
      * Busca arquivos por disciplina.
@@ -60,6 +91,55 @@ public interface FileRepository extends JpaRepository<File, Long> {
     @Query("SELECT f FROM File f WHERE f.discipline = :discipline AND f.status = 'APPROVED' ORDER BY f.createdAt DESC")
     List<File> findApprovedFilesByDiscipline(@Param("discipline") Discipline discipline);
 
+    /**
+     * Lista arquivos aprovados de uma disciplina já projetados em FileResponse.
+     * Executa um único statement independentemente da quantidade de arquivos.
+     */
+    @Query(FILE_RESPONSE_SELECT + "WHERE d.id = :disciplineId AND f.status = 'APPROVED' ORDER BY f.createdAt DESC")
+    List<FileResponse> findApprovedFileResponsesByDiscipline(@Param("disciplineId") Long disciplineId);
+
+    /**
+     * Lista arquivos pendentes de uma instituição já projetados em FileResponse.
+     * Executa um único statement independentemente da quantidade de arquivos.
+     */
+    @Query(FILE_RESPONSE_SELECT + "WHERE i.id = :institutionId AND f.status = 'PENDING' ORDER BY f.createdAt DESC")
+    List<FileResponse> findPendingFileResponsesByInstitution(@Param("institutionId") Long institutionId);
+
+    /**
+     * Primeira página de arquivos aprovados de uma disciplina, ordenada por (createdAt, id) decrescente.
+     */
+    @Query(FILE_RESPONSE_SELECT + "WHERE d.id = :disciplineId AND f.status = 'APPROVED' "
+            + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FileResponse> findFirstApprovedFileResponsesByDiscipline(@Param("disciplineId") Long disciplineId, Limit limit);
+
+    /**
+     * Página seguinte ao cursor (createdAt, id) de arquivos aprovados de uma disciplina.
+     * Usa comparação de tupla para que o custo não cresça com a profundidade da página.
+     */
+    @Query(FILE_RESPONSE_SELECT + "WHERE d.id = :disciplineId AND f.status = 'APPROVED' "
+            + "AND (f.createdAt, f.id) < (:createdAt, :id) ORDER BY f.createdAt DESC, f.id DESC")
+    List<FileResponse> findApprovedFileResponsesByDisciplineAfter(@Param("disciplineId") Long disciplineId,
+                                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                                  @Param("id") Long id,
+                                                                  Limit limit);
+
+    /**
+     * Primeira página de arquivos pendentes de uma instituição, ordenada por (createdAt, id) decrescente.
+     */
+    @Query(FILE_RESPONSE_SELECT + "WHERE i.id = :institutionId AND f.status = 'PENDING' "
+            + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FileResponse> findFirstPendingFileResponsesByInstitution(@Param("institutionId") Long institutionId, Limit limit);
+
+    /**
+     * Página seguinte ao cursor (createdAt, id) de arquivos pendentes de uma instituição.
+     */
+    @Query(FILE_RESPONSE_SELECT + "WHERE i.id = :institutionId AND f.status = 'PENDING' "
+            + "AND (f.createdAt, f.id) < (:createdAt, :id) ORDER BY f.createdAt DESC, f.id DESC")
+    List<FileResponse> findPendingFileResponsesByInstitutionAfter(@Param("institutionId") Long institutionId,
+                                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                                  @Param("id") Long id,
+                                                                  Limit limit);
+
     /**
      * Busca arquivos por usuário que fez upload.
      */
@@ -86,6 +166,12 @@ public interface FileRepository extends JpaRepository<File, Long> {
      */
     Page<File> findByDisciplineAndStatus(Discipline discipline, FileStatus status, Pageable pageable);
 
+    /**
+     * Conta arquivos por status e disciplina.
+     */
+    @Query("SELECT COUNT(f) FROM File f WHERE f.discipline.id = :disciplineId AND f.status = :status")
+    long countByStatusAndDisciplineId(@Param("status") FileStatus status, @Param("disciplineId") Long disciplineId);
+
     /**
      * Conta arquivos por status e instituição.
      */
@@ -98,5 +184,78 @@ public interface FileRepository extends JpaRepository<File, Long> {
      */
     @Query("SELECT f FROM File f WHERE f.institution = :institution AND f.status = 'APPROVED' ORDER BY f.downloadCount DESC")
     List<File> findMostDownloadedFilesByInstitution(@Param("institution") Institution institution, Pageable pageable);
-}
 
+    /**
+     * Busca apenas o título do arquivo.
+     */
+    @Query("SELECT f.title FROM File f WHERE f.id = :id")
+    Optional<String> findTitleById(@Param("id") Long id);
+
+    /**
+     * Busca arquivos aprovados pelos IDs em consulta única (ex: itens do ranking de trending).
+     */
+    @Query(FILE_RESPONSE_SELECT + "WHERE f.id IN :ids AND f.status = 'APPROVED'")
+    List<FileResponse> findApprovedFileResponsesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Disciplina e instituição dos arquivos aprovados informados.
+     * Cada linha: [ID do arquivo, ID da disciplina, ID da instituição].
+     */
+    @Query("SELECT f.id, f.discipline.id, f.institution.id FROM File f WHERE f.id IN :ids AND f.status = 'APPROVED'")
+    List<Object[]> findApprovedScopesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Soma delta ao contador de favoritos de forma atômica no banco.
+     */
+    @Modifying
+    @Query("UPDATE File f SET f.favoritesCount = f.favoritesCount + :delta WHERE f.id = :id")
+    int incrementFavoritesCount(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * Soma delta ao contador de comentários ativos de forma atômica no banco.
+     */
+    @Modifying
+    @Query("UPDATE File f SET f.commentsCount = f.commentsCount + :delta WHERE f.id = :id")
+    int incrementCommentsCount(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * Grava o resultado da geração de prévia, apenas se o conteúdo do arquivo ainda for o mesmo
+     * usado na geração. Retorna 0 se o conteúdo mudou nesse meio tempo.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE File f SET f.previewStatus = :status, f.thumbnailPath = :thumbnailPath, "
+            + "f.previewText = :previewText WHERE f.id = :id AND f.filePath = :sourcePath")
+    int savePreview(@Param("id") Long id, @Param("sourcePath") String sourcePath,
+                    @Param("status") PreviewStatus status, @Param("thumbnailPath") String thumbnailPath,
+                    @Param("previewText") String previewText);
+
+    /**
+     * Descarta a prévia atual e define a nova situação (ex: PENDING após troca de conteúdo).
+     */
+    @Modifying
+    @Query("UPDATE File f SET f.previewStatus = :status, f.thumbnailPath = null, f.previewText = null "
+            + "WHERE f.id = :id")
+    int resetPreview(@Param("id") Long id, @Param("status") PreviewStatus status);
+
+    /**
+     * IDs dos arquivos com prévia aguardando geração, mais antigos primeiro.
+     */
+    @Query("SELECT f.id FROM File f WHERE f.previewStatus = :status ORDER BY f.id")
+    List<Long> findIdsByPreviewStatus(@Param("status") PreviewStatus status, Limit limit);
+
+    /**
+     * Recalcula os contadores de favoritos e comentários ativos dos arquivos de uma instituição.
+     * Atualiza apenas as linhas divergentes e retorna quantas foram corrigidas (drift).
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE files f SET favorites_count = s.favorites, comments_count = s.comments "
+            + "FROM (SELECT f2.id, "
+            + "(SELECT COUNT(*) FROM favorites fav WHERE fav.file_id = f2.id) AS favorites, "
+            + "(SELECT COUNT(*) FROM comments c WHERE c.file_id = f2.id AND c.active = true) AS comments "
+            + "FROM files f2 WHERE f2.institution_id = :institutionId) s "
+            + "WHERE f.id = s.id AND (f.favorites_count <> s.favorites OR f.comments_count <> s.comments)",
+            nativeQuery = true)
+    int reconcileCountersByInstitution(@Param("institutionId") Long institutionId);
+}
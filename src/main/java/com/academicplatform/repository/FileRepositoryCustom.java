@@ -0,0 +1,21 @@
+package com.academicplatform.repository;
+
+import com.academicplatform.enums.FileStatus;
+
+/**
+ * Consultas de File que não são expressas com @Query.
+ * 
+ * @author Felipe Oliveira
+ */
+public interface FileRepositoryCustom {
+
+    /**
+     * Estima quantos arquivos de uma disciplina têm o status, usando o planejador do banco.
+     */
+    long estimateCountByDisciplineAndStatus(Long disciplineId, FileStatus status);
+
+    /**
+     * Estima quantos arquivos de uma instituição têm o status, usando o planejador do banco.
+     */
+    long estimateCountByInstitutionAndStatus(Long institutionId, FileStatus status);
+}
@@ -0,0 +1,45 @@
+package com.academicplatform.repository;
+
+import com.academicplatform.enums.FileStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementação das consultas customizadas de File.
+ * As estimativas usam EXPLAIN, que não executa a consulta: o custo é constante
+ * independentemente da quantidade de arquivos.
+ * 
+ * @author Felipe Oliveira
+ */
+public class FileRepositoryImpl implements FileRepositoryCustom {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long estimateCountByDisciplineAndStatus(Long disciplineId, FileStatus status) {
+        return estimate("SELECT 1 FROM files WHERE discipline_id = :id AND status = :status", disciplineId, status);
+    }
+
+    @Override
+    public long estimateCountByInstitutionAndStatus(Long institutionId, FileStatus status) {
+        return estimate("SELECT 1 FROM files WHERE institution_id = :id AND status = :status", institutionId, status);
+    }
+
+    /**
+     * Executa EXPLAIN (FORMAT JSON) e extrai a estimativa de linhas do nó raiz do plano.
+     */
+    private long estimate(String sql, Long id, FileStatus status) {
+        Object plan = entityManager.createNativeQuery("EXPLAIN (FORMAT JSON) " + sql)
+                .setParameter("id", id)
+                .setParameter("status", status.name())
+                .getSingleResult();
+        Matcher matcher = PLAN_ROWS.matcher(String.valueOf(plan));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0L;
+    }
+}
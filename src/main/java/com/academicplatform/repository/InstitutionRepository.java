@@ -3,8 +3,11 @@ package com.academicplatform.repository;
 import com.academicplatform.entity.Institution;
 import com.academicplatform.enums.PlanType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -59,4 +62,43 @@ public interface InstitutionRepository extends JpaRepository<Institution, Long>
      */
     @Query("SELECT COUNT(i) FROM Institution i WHERE i.active = true")
     long countActiveInstitutions();
+
+    /**
+     * Lista apenas os IDs de todas as instituições, sem carregar as entidades.
+     */
+    @Query("SELECT i.id FROM Institution i")
+    List<Long> findAllIds();
+
+    /**
+     * Busca apenas o armazenamento usado (em bytes) de uma instituição.
+     */
+    @Query("SELECT i.storageUsedBytes FROM Institution i WHERE i.id = :id")
+    Optional<Long> findStorageUsedBytesById(@Param("id") Long id);
+
+    /**
+     * Soma o armazenamento usado (lógico) de todas as instituições, em bytes.
+     */
+    @Query("SELECT COALESCE(SUM(i.storageUsedBytes), 0) FROM Institution i")
+    long sumStorageUsedBytes();
+
+    /**
+     * Soma deltas ao armazenamento usado e à quantidade de arquivos da instituição de forma atômica.
+     */
+    @Modifying
+    @Query("UPDATE Institution i SET i.storageUsedBytes = i.storageUsedBytes + :bytes, "
+            + "i.filesCount = i.filesCount + :files WHERE i.id = :id")
+    int addStorageUsage(@Param("id") Long id, @Param("bytes") long bytes, @Param("files") long files);
+
+    /**
+     * Recalcula armazenamento e quantidade de arquivos de uma instituição.
+     * Arquivos rejeitados não contam. Retorna 1 se o agregado estava divergente e foi corrigido.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE institutions i SET storage_used_bytes = s.bytes, files_count = s.files "
+            + "FROM (SELECT COALESCE(SUM(f.file_size), 0) AS bytes, COUNT(f.id) AS files "
+            + "FROM files f WHERE f.institution_id = :institutionId AND f.status <> 'REJECTED') s "
+            + "WHERE i.id = :institutionId AND (i.storage_used_bytes <> s.bytes OR i.files_count <> s.files)",
+            nativeQuery = true)
+    int reconcileStorageUsage(@Param("institutionId") Long institutionId);
 }
@@ -0,0 +1,58 @@
+package com.academicplatform.repository;
+
+import com.academicplatform.entity.PasswordResetToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositório para operações de persistência da entidade PasswordResetToken.
+ * 
+ * @author Felipe Oliveira
+ */
+@Repository
+public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
+
+    /**
+     * Busca token pelo hash (índice único), sem carregar o usuário.
+     */
+    @Transactional(readOnly = true)
+    Optional<PasswordResetToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Remove os tokens do usuário sem carregar entidades.
+     */
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Consome o token e grava a nova senha do usuário em um único statement.
+     * O token só é consumido se ainda existir e não tiver expirado; os demais tokens do usuário
+     * também são removidos. Retorna 0 se o token já foi usado ou expirou.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "WITH consumed AS ("
+            + "DELETE FROM password_reset_tokens WHERE id = :id AND expires_at > :now RETURNING user_id), "
+            + "others AS (DELETE FROM password_reset_tokens t USING consumed WHERE t.user_id = consumed.user_id AND t.id <> :id) "
+            + "UPDATE users SET password = :passwordHash, updated_at = :now FROM consumed "
+            + "WHERE users.id = consumed.user_id", nativeQuery = true)
+    int consumeAndSetPassword(@Param("id") Long id, @Param("passwordHash") String passwordHash,
+                              @Param("now") LocalDateTime now);
+
+    /**
+     * Remove até batchSize tokens expirados. Retorna a quantidade removida.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM password_reset_tokens WHERE id IN ("
+            + "SELECT id FROM password_reset_tokens WHERE expires_at <= :now LIMIT :batchSize)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
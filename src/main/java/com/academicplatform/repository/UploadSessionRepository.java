@@ -0,0 +1,68 @@
+package com.academicplatform.repository;
+
+import com.academicplatform.entity.File;
+import com.academicplatform.entity.UploadSession;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório para operações de persistência da entidade UploadSession.
+ * 
+ * @author Felipe Oliveira
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, Long> {
+
+    @Transactional(readOnly = true)
+    Optional<UploadSession> findByUploadId(String uploadId);
+
+    /**
+     * Marca a sessão como COMPLETING, se estiver ACTIVE ou se a finalização anterior tiver começado
+     * antes de staleBefore (requisição interrompida). Retorna 1 se esta chamada passou a deter a finalização.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = com.academicplatform.enums.UploadSessionStatus.COMPLETING, "
+            + "s.completionStartedAt = :startedAt WHERE s.id = :id "
+            + "AND (s.status = com.academicplatform.enums.UploadSessionStatus.ACTIVE "
+            + "OR (s.status = com.academicplatform.enums.UploadSessionStatus.COMPLETING "
+            + "AND s.completionStartedAt < :staleBefore))")
+    int startCompletion(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt,
+                        @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Conclui a finalização iniciada em startedAt, associando o arquivo criado.
+     * Retorna 0 se a finalização foi assumida por outra requisição.
+     */
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = com.academicplatform.enums.UploadSessionStatus.COMPLETED, "
+            + "s.file = :file WHERE s.id = :id "
+            + "AND s.status = com.academicplatform.enums.UploadSessionStatus.COMPLETING "
+            + "AND s.completionStartedAt = :startedAt")
+    int finishCompletion(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt, @Param("file") File file);
+
+    /**
+     * Devolve a sessão para ACTIVE após falha na finalização iniciada em startedAt.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = com.academicplatform.enums.UploadSessionStatus.ACTIVE, "
+            + "s.completionStartedAt = null WHERE s.id = :id "
+            + "AND s.status = com.academicplatform.enums.UploadSessionStatus.COMPLETING "
+            + "AND s.completionStartedAt = :startedAt")
+    int abandonCompletion(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt);
+
+    /**
+     * Busca sessões expiradas, em lotes, para limpeza.
+     */
+    List<UploadSession> findByExpiresAtBeforeOrderByExpiresAt(LocalDateTime now, Limit limit);
+}
@@ -3,10 +3,14 @@ package com.academicplatform.repository;
 import com.academicplatform.entity.Institution;
 import com.academicplatform.entity.User;
 import com.academicplatform.enums.UserRole;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +28,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByEmail(String email);
 
+    /**
+     * Busca usuário por email já com a instituição carregada (usado no login).
+     * Transação própria para liberar a conexão ao final da consulta.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT u FROM User u JOIN FETCH u.institution WHERE u.email = :email")
+    Optional<User> findByEmailWithInstitution(@Param("email") String email);
+
+    /**
+     * Busca usuário por email com lock de escrita, serializando operações concorrentes sobre o mesmo usuário.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.email = :email")
+    Optional<User> findByEmailForUpdate(@Param("email") String email);
+
+    /**
+     * Substitui o hash da senha apenas se o hash armazenado ainda for o informado,
+     * para que um rehash no login não sobrescreva uma troca de senha concorrente.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :currentHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("currentHash") String currentHash,
+                            @Param("newHash") String newHash);
+
     /**
      * Verifica se existe usuário com o email informado.
      */
@@ -54,12 +83,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     List<User> findByRoleAndInstitutionAndActiveTrue(UserRole role, Institution institution);
 
-    /**
-     * Busca usuário por token de reset de senha.
-     * Usado para validar token na recuperação de senha.
-     */
-    Optional<User> findByResetToken(String resetToken);
-
     /**
      * Conta usuários ativos de uma instituição.
      */
@@ -0,0 +1,41 @@
+package com.academicplatform.security;
+
+import com.academicplatform.enums.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Principal de uma requisição autenticada, montado apenas a partir das claims do JWT.
+ * Contém o necessário para autorização sem consultar o UserRepository.
+ *
+ * @author Felipe Oliveira
+ */
+public record AuthenticatedUser(Long userId, UserRole role, Long institutionId, Instant expiresAt) {
+
+    private static final Map<UserRole, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(UserRole.class);
+
+    static {
+        for (UserRole role : UserRole.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    /**
+     * Authorities do Spring Security correspondentes à role (ROLE_ADMIN, ROLE_TEACHER...).
+     */
+    public List<GrantedAuthority> authorities() {
+        return AUTHORITIES.get(role);
+    }
+
+    /**
+     * Verifica se o token que originou o principal já expirou.
+     */
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,62 @@
+package com.academicplatform.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token buckets em memória, para implantação em um único nó.
+ * Os buckets ficam em um cache Caffeine (mapa concorrente particionado) com tamanho máximo e expiração
+ * por inatividade, então a memória fica limitada mesmo com milhões de chaves distintas; um bucket
+ * expirado equivale a um bucket cheio. Cada consumo é um CAS sobre o estado imutável do bucket, sem lock.
+ *
+ * @author Felipe Oliveira
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Cache<String, AtomicReference<BucketState>> buckets;
+
+    public InMemoryRateLimitStore(@Value("${app.security.rate-limit.memory.max-keys:1000000}") long maxKeys,
+                                  @Value("${app.security.rate-limit.memory.idle-expiration-minutes:60}") long idleMinutes) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    @Override
+    public boolean tryConsume(String key, int capacity, Duration refillPeriod) {
+        long now = System.nanoTime();
+        double refillPerNano = capacity / (double) refillPeriod.toNanos();
+        AtomicReference<BucketState> bucket = buckets.get(key, k -> new AtomicReference<>(new BucketState(capacity, now)));
+
+        while (true) {
+            BucketState current = bucket.get();
+            double elapsed = Math.max(0, now - current.refilledAt());
+            double available = Math.min(capacity, current.tokens() + elapsed * refillPerNano);
+            if (available < 1) {
+                return false;
+            }
+            if (bucket.compareAndSet(current, new BucketState(available - 1, now))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Quantidade aproximada de chaves com bucket em memória.
+     */
+    public long getTrackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    private record BucketState(double tokens, long refilledAt) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.academicplatform.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Token buckets compartilhados entre nós na tabela rate_limit_buckets.
+ * Reabastecimento e consumo acontecem em um único upsert atômico; a linha só é alterada
+ * se houver token disponível. Buckets inativos são removidos periodicamente.
+ * A chave é gravada como hash SHA-256 em hexadecimal, com tamanho fixo independente do email ou IP recebido.
+ * Deve ser chamado fora de transações: o upsert bloqueia a linha do bucket até o commit.
+ *
+ * @author Felipe Oliveira
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.rate-limit.store", havingValue = "jdbc")
+@Slf4j
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final String CONSUME_SQL =
+            "INSERT INTO rate_limit_buckets AS b (bucket_key, tokens, refilled_at) VALUES (?, ? - 1, clock_timestamp()) "
+            + "ON CONFLICT (bucket_key) DO UPDATE SET "
+            + "tokens = LEAST(?, b.tokens + EXTRACT(EPOCH FROM (clock_timestamp() - b.refilled_at)) * ?) - 1, "
+            + "refilled_at = clock_timestamp() "
+            + "WHERE LEAST(?, b.tokens + EXTRACT(EPOCH FROM (clock_timestamp() - b.refilled_at)) * ?) >= 1 "
+            + "RETURNING tokens";
+
+    // LOCALTIMESTAMP é estável e do mesmo tipo da coluna: o limite vira condição do índice de refilled_at,
+    // o que não acontece com clock_timestamp() (volátil).
+    private static final String PURGE_SQL =
+            "DELETE FROM rate_limit_buckets WHERE refilled_at < LOCALTIMESTAMP - make_interval(mins => ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int idleMinutes;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate,
+                              @Value("${app.security.rate-limit.jdbc.idle-expiration-minutes:60}") int idleMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idleMinutes = idleMinutes;
+    }
+
+    @Override
+    public boolean tryConsume(String key, int capacity, Duration refillPeriod) {
+        double refillPerSecond = capacity / (refillPeriod.toMillis() / 1000.0);
+        List<Double> remaining = jdbcTemplate.queryForList(CONSUME_SQL, Double.class,
+                hash(key), capacity, capacity, refillPerSecond, capacity, refillPerSecond);
+        return !remaining.isEmpty();
+    }
+
+    /**
+     * Remove buckets sem uso há mais tempo que o necessário para reabastecer.
+     */
+    @Scheduled(fixedDelayString = "${app.security.rate-limit.jdbc.purge-interval-ms:600000}")
+    public int purgeIdle() {
+        int purged = jdbcTemplate.update(PURGE_SQL, idleMinutes);
+        if (purged > 0) {
+            log.debug("Buckets de rate limit inativos removidos: {}", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Hash SHA-256 da chave em hexadecimal (64 caracteres), como armazenado em bucket_key.
+     */
+    static String hash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
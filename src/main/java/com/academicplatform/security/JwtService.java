@@ -0,0 +1,154 @@
+package com.academicplatform.security;
+
+import com.academicplatform.entity.User;
+import com.academicplatform.enums.UserRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Emissão e validação de tokens JWT (HMAC-SHA).
+ * O token carrega ID, role e instituição do usuário, então a autenticação de uma requisição
+ * não consulta o banco. A chave e o parser são criados uma única vez; tokens já validados
+ * ficam em um cache limitado, evitando refazer a verificação da assinatura a cada requisição.
+ * A aplicação não inicia sem uma chave configurada de no mínimo 256 bits.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class JwtService implements MeterBinder {
+
+    private static final String ISSUER = "academic-platform";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_INSTITUTION = "institutionId";
+    private static final int MIN_KEY_BYTES = 32;
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Duration expiration;
+    private final Cache<String, AuthenticatedUser> validated;
+
+    public JwtService(@Value("${app.security.jwt.secret}") String secret,
+                      @Value("${app.security.jwt.expiration-minutes:1440}") long expirationMinutes,
+                      @Value("${app.security.jwt.validated-cache.max-tokens:50000}") long maxCachedTokens,
+                      @Value("${app.security.jwt.validated-cache.ttl-minutes:10}") long cacheTtlMinutes) {
+        this.key = signingKey(secret);
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .requireIssuer(ISSUER)
+                .build();
+        this.expiration = Duration.ofMinutes(expirationMinutes);
+        this.validated = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gera um token para o usuário. Requer a instituição carregada ou como proxy (apenas o ID é lido).
+     */
+    public String generateToken(User user) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .issuer(ISSUER)
+                .subject(String.valueOf(user.getId()))
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_INSTITUTION, user.getInstitution().getId())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(expiration)))
+                .signWith(key)
+                .compact();
+    }
+
+    /**
+     * Valida o token e retorna o principal correspondente.
+     * Retorna vazio para token inválido, adulterado ou expirado.
+     */
+    public Optional<AuthenticatedUser> authenticate(String token) {
+        Instant now = Instant.now();
+        AuthenticatedUser cached = validated.getIfPresent(token);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return Optional.of(cached);
+            }
+            validated.invalidate(token);
+            return Optional.empty();
+        }
+
+        try {
+            AuthenticatedUser principal = toPrincipal(parser.parseSignedClaims(token).getPayload());
+            validated.put(token, principal);
+            return Optional.of(principal);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token JWT rejeitado: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Monta o principal a partir das claims. Lança IllegalArgumentException se faltar alguma claim obrigatória.
+     */
+    private AuthenticatedUser toPrincipal(Claims claims) {
+        String subject = claims.getSubject();
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Long institutionId = claims.get(CLAIM_INSTITUTION, Long.class);
+        Date expiresAt = claims.getExpiration();
+        if (subject == null || role == null || institutionId == null || expiresAt == null) {
+            throw new IllegalArgumentException("Claims obrigatórias ausentes");
+        }
+        return new AuthenticatedUser(Long.valueOf(subject), UserRole.valueOf(role), institutionId, expiresAt.toInstant());
+    }
+
+    /**
+     * Decodifica a chave HMAC (Base64), recusando chave ausente, inválida ou menor que 256 bits.
+     */
+    private static SecretKey signingKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("Chave JWT não configurada (app.security.jwt.secret / JWT_SECRET)");
+        }
+        byte[] bytes;
+        try {
+            bytes = Decoders.BASE64.decode(secret.trim());
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Chave JWT deve estar em Base64", e);
+        }
+        if (bytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("Chave JWT deve ter no mínimo 256 bits");
+        }
+        return Keys.hmacShaKeyFor(bytes);
+    }
+
+    /**
+     * Tempo de validade dos tokens emitidos.
+     */
+    public Duration getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * Publica as estatísticas do cache de tokens validados (cache.* com cache=jwt-validated).
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, validated, "jwt-validated");
+    }
+}
@@ -0,0 +1,20 @@
+package com.academicplatform.security;
+
+import java.time.Duration;
+
+/**
+ * Armazenamento dos token buckets do rate limiter.
+ * A implementação em memória atende um único nó; a JDBC compartilha os buckets entre nós.
+ * Selecionada por app.security.rate-limit.store (memory ou jdbc).
+ *
+ * @author Felipe Oliveira
+ */
+public interface RateLimitStore {
+
+    /**
+     * Tenta consumir um token do bucket da chave. O bucket comporta até capacity tokens e é
+     * reabastecido continuamente, enchendo por completo a cada refillPeriod.
+     * Retorna false se não houver token disponível.
+     */
+    boolean tryConsume(String key, int capacity, Duration refillPeriod);
+}
@@ -0,0 +1,85 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.request.LoginRequest;
+import com.academicplatform.dto.response.LoginResponse;
+import com.academicplatform.entity.User;
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.repository.UserRepository;
+import com.academicplatform.security.JwtService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Service de autenticação: valida credenciais e emite o token JWT.
+ * 
+ * @author Felipe Oliveira
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuthService {
+
+    private static final String INVALID_CREDENTIALS = "Email ou senha inválidos";
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final JwtService jwtService;
+    private final RateLimitService rateLimitService;
+    private final LastLoginService lastLoginService;
+
+    /**
+     * Autentica o usuário por email e senha e retorna o token de acesso.
+     * Usuário inexistente, inativo ou senha incorreta resultam na mesma mensagem de erro.
+     * Tentativas são limitadas por email e por IP do cliente antes de qualquer consulta ao banco.
+     * Não é transacional: leitura e atualizações usam transações curtas do repositório, e a
+     * verificação do hash roda no pool de hashing sem manter conexão com o banco durante o BCrypt.
+     * Hash gravado com custo diferente do configurado é refeito. O último login é gravado em batch
+     * pelo LastLoginService, fora do caminho da requisição.
+     */
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        rateLimitService.checkLogin(request.getEmail(), clientIp);
+
+        User user = userRepository.findByEmailWithInstitution(request.getEmail())
+                .filter(User::getActive)
+                .orElseThrow(() -> new BusinessException(INVALID_CREDENTIALS));
+
+        String storedHash = user.getPassword();
+        if (!passwordHashingService.matches(request.getPassword(), storedHash)) {
+            throw new BusinessException(INVALID_CREDENTIALS);
+        }
+        if (passwordHashingService.needsRehash(storedHash)) {
+            rehash(user.getId(), request.getPassword(), storedHash);
+        }
+
+        lastLoginService.record(user.getId(), LocalDateTime.now());
+        log.info("Login realizado: usuário {}", user.getId());
+
+        return LoginResponse.builder()
+                .token(jwtService.generateToken(user))
+                .userId(user.getId())
+                .userName(user.getName())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .institutionId(user.getInstitution().getId())
+                .institutionName(user.getInstitution().getName())
+                .build();
+    }
+
+    /**
+     * Regrava o hash da senha com o custo atual. Falhas não impedem o login; o rehash é tentado no próximo.
+     */
+    private void rehash(Long userId, String rawPassword, String storedHash) {
+        try {
+            String rehashed = passwordHashingService.encode(rawPassword);
+            if (userRepository.replacePasswordHash(userId, storedHash, rehashed) > 0) {
+                log.info("Hash de senha do usuário {} atualizado para custo {}", userId,
+                        passwordHashingService.getTargetCost());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao refazer hash de senha do usuário {}", userId, e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.BannedTerm;
+import com.academicplatform.entity.Institution;
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.exception.DuplicateEntityException;
+import com.academicplatform.repository.BannedTermRepository;
+import com.academicplatform.util.AhoCorasickMatcher;
+import com.academicplatform.util.ServiceHelper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Moderação de comentários por lista de termos proibidos de cada instituição.
+ * A lista é compilada em um único autômato Aho–Corasick, que verifica todos os termos
+ * em uma passada pelo texto. Os autômatos ficam em cache e são recompilados sob demanda
+ * após qualquer alteração na lista da instituição.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+@Transactional
+public class CommentModerationService implements MeterBinder {
+
+    private final BannedTermRepository bannedTermRepository;
+    private final ServiceHelper serviceHelper;
+    private final Cache<Long, AhoCorasickMatcher> matchers;
+
+    public CommentModerationService(BannedTermRepository bannedTermRepository,
+                                    ServiceHelper serviceHelper,
+                                    @Value("${app.comments.moderation.max-institutions:1000}") long maxInstitutions) {
+        this.bannedTermRepository = bannedTermRepository;
+        this.serviceHelper = serviceHelper;
+        this.matchers = Caffeine.newBuilder()
+                .maximumSize(maxInstitutions)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Valida o conteúdo de um comentário contra a lista da instituição.
+     * Lança BusinessException se algum termo proibido for encontrado.
+     */
+    @Transactional(readOnly = true)
+    public void validate(Long institutionId, String content) {
+        List<String> violations = findViolations(institutionId, content);
+        if (!violations.isEmpty()) {
+            log.debug("Comentário rejeitado na instituição {}: {} termos proibidos", institutionId, violations.size());
+            throw new BusinessException("Comentário contém termos não permitidos");
+        }
+    }
+
+    /**
+     * Retorna os termos proibidos da instituição encontrados no conteúdo.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findViolations(Long institutionId, String content) {
+        return matcherFor(institutionId).findAll(content);
+    }
+
+    /**
+     * Lista os termos proibidos da instituição (normalizados).
+     */
+    @Transactional(readOnly = true)
+    public List<String> findTerms(Long institutionId) {
+        serviceHelper.findInstitutionOrThrow(institutionId);
+        return bannedTermRepository.findTermsByInstitutionId(institutionId);
+    }
+
+    /**
+     * Adiciona um termo à lista da instituição. O termo é normalizado antes de ser gravado.
+     */
+    public String addTerm(Long institutionId, String term) {
+        Institution institution = serviceHelper.findInstitutionOrThrow(institutionId);
+        String normalized = normalizeOrThrow(term);
+
+        if (bannedTermRepository.existsByInstitutionIdAndTerm(institutionId, normalized)) {
+            throw new DuplicateEntityException("Termo '" + normalized + "' já está na lista desta instituição");
+        }
+
+        bannedTermRepository.save(BannedTerm.builder()
+                .institution(institution)
+                .term(normalized)
+                .build());
+        invalidateAfterCommit(institutionId);
+        log.info("Termo proibido adicionado na instituição {}", institutionId);
+        return normalized;
+    }
+
+    /**
+     * Remove um termo da lista da instituição. Retorna true se o termo existia.
+     */
+    public boolean removeTerm(Long institutionId, String term) {
+        String normalized = normalizeOrThrow(term);
+        boolean removed = bannedTermRepository.deleteByInstitutionIdAndTerm(institutionId, normalized) > 0;
+        if (removed) {
+            invalidateAfterCommit(institutionId);
+            log.info("Termo proibido removido da instituição {}", institutionId);
+        }
+        return removed;
+    }
+
+    /**
+     * Quantidade de autômatos compilados em cache.
+     */
+    public long getCachedInstitutions() {
+        return matchers.estimatedSize();
+    }
+
+    private AhoCorasickMatcher matcherFor(Long institutionId) {
+        return matchers.get(institutionId, id -> {
+            AhoCorasickMatcher matcher = AhoCorasickMatcher.compile(bannedTermRepository.findTermsByInstitutionId(id));
+            log.debug("Autômato de moderação compilado para instituição {}: {} termos", id, matcher.size());
+            return matcher;
+        });
+    }
+
+    /**
+     * Publica as estatísticas do cache de autômatos (cache.* com cache=comment-moderation).
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, matchers, "comment-moderation");
+    }
+
+    private String normalizeOrThrow(String term) {
+        String normalized = AhoCorasickMatcher.normalize(term);
+        if (normalized.isEmpty()) {
+            throw new BusinessException("Termo é obrigatório");
+        }
+        if (normalized.length() > 100) {
+            throw new BusinessException("Termo deve ter no máximo 100 caracteres");
+        }
+        return normalized;
+    }
+
+    /**
+     * Descarta o autômato da instituição agora e novamente após o commit,
+     * para que uma compilação concorrente com a transação não permaneça em cache com a lista antiga.
+     */
+    private void invalidateAfterCommit(Long institutionId) {
+        matchers.invalidate(institutionId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                matchers.invalidate(institutionId);
+            }
+        });
+    }
+}
@@ -2,18 +2,23 @@ package com.academicplatform.service;
 
 import com.academicplatform.dto.request.CommentRequest;
 import com.academicplatform.dto.response.CommentResponse;
+import com.academicplatform.dto.response.CursorPageResponse;
 import com.academicplatform.entity.Comment;
 import com.academicplatform.entity.File;
 import com.academicplatform.entity.User;
+import com.academicplatform.exception.EntityNotFoundException;
 import com.academicplatform.repository.CommentRepository;
+import com.academicplatform.repository.FileRepository;
+import com.academicplatform.util.KeysetCursor;
 import com.academicplatform.util.ServiceHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service para operações de negócio relacionadas a Comment.
@@ -26,15 +31,23 @@ import java.util.stream.Collectors;
 @Transactional
 public class CommentService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CommentRepository commentRepository;
+    private final FileRepository fileRepository;
     private final ServiceHelper serviceHelper;
+    private final CommentStreamService commentStreamService;
+    private final CommentModerationService commentModerationService;
 
     /**
      * Cria um novo comentário em um arquivo.
+     * O conteúdo é validado contra os termos proibidos da instituição do arquivo.
+     * Após o commit, o comentário é enviado aos visualizadores inscritos no stream do arquivo.
      */
     public CommentResponse create(CommentRequest request, Long userId) {
         File file = serviceHelper.findFileOrThrow(request.getFileId());
         User user = serviceHelper.findUserOrThrow(userId);
+        commentModerationService.validate(file.getInstitution().getId(), request.getContent());
 
         Comment comment = Comment.builder()
                 .content(request.getContent())
@@ -44,9 +57,12 @@ public class CommentService {
                 .build();
 
         Comment saved = commentRepository.save(comment);
+        fileRepository.incrementCommentsCount(file.getId(), 1);
         log.info("Comentário criado: {}", saved.getId());
 
-        return toResponse(saved);
+        CommentResponse response = toResponse(saved);
+        commentStreamService.commentCreated(response);
+        return response;
     }
 
     /**
@@ -61,39 +77,100 @@ public class CommentService {
 
     /**
      * Lista comentários de um arquivo, ordenados por data de criação (mais antigos primeiro).
+     * Usa projeção com o autor via join; o título do arquivo é buscado uma única vez.
      */
     @Transactional(readOnly = true)
     public List<CommentResponse> findByFile(Long fileId) {
-        File file = serviceHelper.findFileOrThrow(fileId);
-        return commentRepository.findActiveCommentsByFileOrderByCreatedAtAsc(file).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        String fileTitle = findFileTitleOrThrow(fileId);
+        return withFileTitle(commentRepository.findActiveCommentResponsesByFile(fileId), fileTitle);
+    }
+
+    /**
+     * Lista uma página dos comentários ativos de um arquivo usando paginação por cursor.
+     * direction DESC retorna os mais recentes primeiro; ASC, os mais antigos primeiro.
+     * Cada página custa duas consultas: o título do arquivo e a projeção dos comentários com o autor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CommentResponse> findByFile(Long fileId, String cursor, int size,
+                                                          Sort.Direction direction) {
+        String fileTitle = findFileTitleOrThrow(fileId);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<CommentResponse> rows;
+        if (direction == Sort.Direction.ASC) {
+            rows = position == null
+                    ? commentRepository.findFirstOldestActiveCommentResponses(fileId, limit)
+                    : commentRepository.findOldestActiveCommentResponsesAfter(fileId,
+                            position.getCreatedAt(), position.getId(), limit);
+        } else {
+            rows = position == null
+                    ? commentRepository.findFirstNewestActiveCommentResponses(fileId, limit)
+                    : commentRepository.findNewestActiveCommentResponsesBefore(fileId,
+                            position.getCreatedAt(), position.getId(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<CommentResponse> content = withFileTitle(hasNext ? rows.subList(0, pageSize) : rows, fileTitle);
+        CommentResponse last = content.isEmpty() ? null : content.get(content.size() - 1);
+
+        return CursorPageResponse.<CommentResponse>builder()
+                .content(content)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
     }
 
     /**
      * Desativa um comentário (soft delete).
+     * A desativação é um UPDATE condicional; o contador do arquivo só é decrementado
+     * se esta chamada efetivamente desativou o comentário, mesmo com exclusões concorrentes.
      */
     public void delete(Long id) {
         Comment comment = commentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Comentário não encontrado"));
+        Long fileId = comment.getFile().getId();
 
-        comment.setActive(false);
-        commentRepository.save(comment);
+        if (commentRepository.deactivate(id) == 0) {
+            log.debug("Comentário {} já estava desativado", id);
+            return;
+        }
+
+        fileRepository.incrementCommentsCount(fileId, -1);
+        commentStreamService.commentDeleted(fileId, id);
         log.info("Comentário desativado: {}", id);
     }
 
     /**
      * Atualiza conteúdo de um comentário.
+     * O novo conteúdo é validado contra os termos proibidos da instituição do arquivo.
      */
     public CommentResponse update(Long id, String content) {
         Comment comment = commentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Comentário não encontrado"));
+        commentModerationService.validate(comment.getFile().getInstitution().getId(), content);
 
         comment.setContent(content);
         Comment saved = commentRepository.save(comment);
         log.info("Comentário atualizado: {}", saved.getId());
 
-        return toResponse(saved);
+        CommentResponse response = toResponse(saved);
+        commentStreamService.commentUpdated(response);
+        return response;
+    }
+
+    private String findFileTitleOrThrow(Long fileId) {
+        return fileRepository.findTitleById(fileId)
+                .orElseThrow(() -> new EntityNotFoundException("Arquivo", fileId));
+    }
+
+    /**
+     * Preenche o título do arquivo em todos os comentários da página.
+     */
+    private List<CommentResponse> withFileTitle(List<CommentResponse> comments, String fileTitle) {
+        comments.forEach(comment -> comment.setFileName(fileTitle));
+        return comments;
     }
 
     /**
@@ -0,0 +1,338 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.response.CommentEventResponse;
+import com.academicplatform.dto.response.CommentResponse;
+import com.academicplatform.enums.CommentEventType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Stream ao vivo dos comentários de um arquivo via Server-Sent Events.
+ * Cada conexão tem uma fila de envio limitada, drenada por um pool compartilhado de threads;
+ * a publicação apenas enfileira e nunca bloqueia quem comenta. Conexões cuja fila enche
+ * (clientes lentos), cujo envio falha ou cujo envio fica bloqueado além do timeout são removidas
+ * do registro na hora e deixam de receber mensagens. O emitter é encerrado com erro pela própria
+ * thread de envio, quando a escrita em andamento termina ou falha pelo timeout de escrita do container:
+ * o emitter serializa envio e encerramento, então encerrá-lo de outra thread bloquearia quem encerra.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class CommentStreamService {
+
+    private static final String HEARTBEAT_COMMENT = "ping";
+
+    private final Map<Long, Set<Subscriber>> subscribersByFile = new ConcurrentHashMap<>();
+    /** Visualizadores com envio em andamento, verificados contra o timeout de envio. */
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final int queueCapacity;
+    private final long sendTimeoutNanos;
+    private final Supplier<SseEmitter> emitterFactory;
+
+    @Autowired
+    public CommentStreamService(@Value("${app.comments.stream.sender-threads:4}") int senderThreads,
+                                @Value("${app.comments.stream.queue-capacity:64}") int queueCapacity,
+                                @Value("${app.comments.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${app.comments.stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this(senderThreads, queueCapacity, sendTimeoutMs, () -> new SseEmitter(timeoutMs));
+    }
+
+    CommentStreamService(int senderThreads, int queueCapacity, long sendTimeoutMs, Supplier<SseEmitter> emitterFactory) {
+        this.senders = Executors.newFixedThreadPool(senderThreads);
+        this.queueCapacity = queueCapacity;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.emitterFactory = emitterFactory;
+    }
+
+    /**
+     * Inscreve um visualizador no stream de comentários do arquivo.
+     * O emitter retornado deve ser devolvido pelo controller; a inscrição termina quando ele é encerrado.
+     */
+    public SseEmitter subscribe(Long fileId) {
+        SseEmitter emitter = emitterFactory.get();
+        Subscriber subscriber = new Subscriber(fileId, emitter, new ArrayBlockingQueue<>(queueCapacity));
+
+        // A inclusão acontece dentro do compute para não correr com unsubscribe removendo o conjunto vazio.
+        subscribersByFile.compute(fileId, (id, subscribers) -> {
+            Set<Subscriber> target = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        log.debug("Visualizador inscrito no stream do arquivo {}", fileId);
+        return emitter;
+    }
+
+    /**
+     * Publica um comentário criado, após o commit da transação corrente.
+     */
+    public void commentCreated(CommentResponse comment) {
+        publishAfterCommit(event(CommentEventType.CREATED, comment.getFileId(), comment.getId(), comment));
+    }
+
+    /**
+     * Publica um comentário editado, após o commit da transação corrente.
+     */
+    public void commentUpdated(CommentResponse comment) {
+        publishAfterCommit(event(CommentEventType.UPDATED, comment.getFileId(), comment.getId(), comment));
+    }
+
+    /**
+     * Publica um comentário desativado (soft delete), após o commit da transação corrente.
+     */
+    public void commentDeleted(Long fileId, Long commentId) {
+        publishAfterCommit(event(CommentEventType.DELETED, fileId, commentId, null));
+    }
+
+    /**
+     * Quantidade de visualizadores inscritos no arquivo.
+     */
+    public int getSubscriberCount(Long fileId) {
+        Set<Subscriber> subscribers = subscribersByFile.get(fileId);
+        return subscribers != null ? subscribers.size() : 0;
+    }
+
+    /**
+     * Envia um heartbeat a todas as conexões, mantendo proxies abertos e detectando clientes desconectados.
+     */
+    @Scheduled(fixedDelayString = "${app.comments.stream.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        subscribersByFile.values().forEach(subscribers ->
+                subscribers.forEach(subscriber -> enqueue(subscriber, Outgoing.HEARTBEAT)));
+    }
+
+    /**
+     * Remove do stream as conexões cujo envio está bloqueado além do timeout (cliente que não lê o socket).
+     * Não toca no emitter nem na thread de envio: a escrita bloqueada termina ou falha sozinha e a
+     * thread de envio encerra o emitter em seguida.
+     */
+    @Scheduled(fixedDelayString = "${app.comments.stream.send-check-interval-ms:1000}")
+    public void dropStalledSenders() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : sending) {
+            if (now - subscriber.sendStartedNanos > sendTimeoutNanos && !subscriber.closed.get()) {
+                log.info("Visualizador lento removido do stream do arquivo {} (timeout de envio)", subscriber.fileId);
+                close(subscriber, new IOException("Timeout de envio excedido"));
+            }
+        }
+    }
+
+    private CommentEventResponse event(CommentEventType type, Long fileId, Long commentId, CommentResponse comment) {
+        return CommentEventResponse.builder()
+                .type(type)
+                .fileId(fileId)
+                .commentId(commentId)
+                .comment(comment)
+                .build();
+    }
+
+    private void publishAfterCommit(CommentEventResponse event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event);
+            }
+        });
+    }
+
+    private void publish(CommentEventResponse event) {
+        Set<Subscriber> subscribers = subscribersByFile.get(event.getFileId());
+        if (subscribers == null) {
+            return;
+        }
+        Outgoing outgoing = new Outgoing(event);
+        subscribers.forEach(subscriber -> enqueue(subscriber, outgoing));
+    }
+
+    /**
+     * Enfileira a mensagem para o visualizador e agenda a drenagem se ela ainda não estiver agendada.
+     * Fila cheia indica cliente lento: a conexão é encerrada.
+     */
+    private void enqueue(Subscriber subscriber, Outgoing outgoing) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.queue.offer(outgoing)) {
+            log.info("Visualizador lento removido do stream do arquivo {}", subscriber.fileId);
+            close(subscriber, new IOException("Fila de envio cheia"));
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Esta chamada detém a drenagem: o emitter pode ser encerrado aqui mesmo.
+            subscriber.closed.set(true);
+            subscriber.queue.clear();
+            removeFromRegistry(subscriber);
+            finish(subscriber);
+            subscriber.draining.set(false);
+        }
+    }
+
+    /**
+     * Envia as mensagens pendentes em ordem. Apenas uma drenagem por visualizador executa por vez;
+     * é ela quem encerra o emitter de uma conexão fechada, depois da última escrita.
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            Outgoing outgoing;
+            while (!subscriber.closed.get() && (outgoing = subscriber.queue.poll()) != null) {
+                send(subscriber, outgoing);
+            }
+            if (subscriber.closed.get()) {
+                finish(subscriber);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Falha ao enviar para visualizador do arquivo {}; conexão encerrada", subscriber.fileId);
+            close(subscriber, e);
+            finish(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Mensagens enfileiradas ou fechamento pedidos enquanto esta drenagem ainda estava marcada.
+        boolean pending = subscriber.closed.get() ? !subscriber.finished.get() : !subscriber.queue.isEmpty();
+        if (pending) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    /**
+     * Envia uma mensagem, registrando o início para o controle de timeout.
+     */
+    private void send(Subscriber subscriber, Outgoing outgoing) throws IOException {
+        subscriber.sendStartedNanos = System.nanoTime();
+        sending.add(subscriber);
+        try {
+            write(subscriber, outgoing);
+        } finally {
+            sending.remove(subscriber);
+        }
+    }
+
+    private void write(Subscriber subscriber, Outgoing outgoing) throws IOException {
+        if (outgoing.event() == null) {
+            subscriber.emitter.send(SseEmitter.event().comment(HEARTBEAT_COMMENT));
+            return;
+        }
+        CommentEventResponse event = outgoing.event();
+        subscriber.emitter.send(SseEmitter.event()
+                .name(event.getType().name().toLowerCase())
+                .id(String.valueOf(event.getCommentId()))
+                .data(event, MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * Fecha a conexão: tira do registro e descarta a fila na hora, sem bloquear quem chama.
+     * O emitter é encerrado pela drenagem (a atual, se houver envio em andamento, ou uma nova);
+     * com reason null o encerramento é normal, senão com erro.
+     */
+    private void close(Subscriber subscriber, Exception reason) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscriber.closeReason = reason;
+            subscriber.queue.clear();
+            removeFromRegistry(subscriber);
+            scheduleDrain(subscriber);
+        }
+    }
+
+    /**
+     * Encerra o emitter uma única vez. Chamado apenas por quem detém a drenagem, sem envio em andamento.
+     */
+    private void finish(Subscriber subscriber) {
+        if (!subscriber.finished.compareAndSet(false, true)) {
+            return;
+        }
+        if (subscriber.closeReason == null) {
+            subscriber.emitter.complete();
+        } else {
+            subscriber.emitter.completeWithError(subscriber.closeReason);
+        }
+    }
+
+    /**
+     * Remove a inscrição de um emitter já encerrado (conclusão, timeout ou erro do container).
+     */
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.finished.set(true);
+        subscriber.closed.set(true);
+        removeFromRegistry(subscriber);
+    }
+
+    private void removeFromRegistry(Subscriber subscriber) {
+        subscribersByFile.computeIfPresent(subscriber.fileId, (fileId, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribersByFile.values().forEach(subscribers -> subscribers.forEach(subscriber -> close(subscriber, null)));
+        senders.shutdown();
+    }
+
+    /**
+     * Mensagem a enviar: um evento de comentário ou, com event null, um heartbeat.
+     */
+    private record Outgoing(CommentEventResponse event) {
+        static final Outgoing HEARTBEAT = new Outgoing(null);
+    }
+
+    /**
+     * Conexão de um visualizador com sua fila de envio limitada.
+     */
+    private static final class Subscriber {
+
+        private final Long fileId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Outgoing> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private volatile long sendStartedNanos;
+        private volatile Exception closeReason;
+
+        Subscriber(Long fileId, SseEmitter emitter, BlockingQueue<Outgoing> queue) {
+            this.fileId = fileId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
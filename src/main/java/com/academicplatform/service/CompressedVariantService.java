@@ -0,0 +1,287 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.ContentBlob;
+import com.academicplatform.enums.ContentEncoding;
+import com.academicplatform.enums.FileType;
+import com.academicplatform.exception.StorageException;
+import com.academicplatform.repository.ContentBlobRepository;
+import com.academicplatform.storage.StorageService;
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Variantes pré-comprimidas (gzip e zstd) de conteúdos compressíveis.
+ * As variantes são geradas uma única vez por conteúdo, em segundo plano após o commit da ingestão,
+ * e servidas conforme o Accept-Encoding do cliente, sem recompressão por requisição.
+ * Executa em pool limitado com fila limitada, como as prévias; conteúdos ainda não avaliados
+ * (fila cheia ou perdida em reinício) são retomados periodicamente.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class CompressedVariantService {
+
+    /**
+     * Tipos com conteúdo compressível. Formatos OOXML (DOCX, XLSX, PPTX) já são ZIP e ficam de fora.
+     */
+    private static final Set<FileType> COMPRESSIBLE_TYPES =
+            EnumSet.of(FileType.TXT, FileType.DOC, FileType.XLS, FileType.PPT);
+
+    /**
+     * Variantes que não reduzem ao menos 10% do tamanho são descartadas.
+     */
+    private static final double MAX_COMPRESSED_RATIO = 0.9;
+
+    private final ContentBlobRepository contentBlobRepository;
+    private final StorageService storageService;
+    private final long maxSourceBytes;
+    private final int zstdLevel;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public CompressedVariantService(ContentBlobRepository contentBlobRepository,
+                                    StorageService storageService,
+                                    @Value("${app.compression.max-source-bytes:104857600}") long maxSourceBytes,
+                                    @Value("${app.compression.zstd-level:3}") int zstdLevel,
+                                    @Value("${app.compression.workers:1}") int workers,
+                                    @Value("${app.compression.queue-capacity:100}") int queueCapacity) {
+        this.contentBlobRepository = contentBlobRepository;
+        this.storageService = storageService;
+        this.maxSourceBytes = maxSourceBytes;
+        this.zstdLevel = zstdLevel;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Agenda, para depois do commit da transação corrente, a geração das variantes do conteúdo
+     * se o tipo for compressível.
+     */
+    public void schedule(Long blobId, FileType fileType) {
+        if (!COMPRESSIBLE_TYPES.contains(fileType)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(blobId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(blobId);
+            }
+        });
+    }
+
+    /**
+     * Retoma conteúdos compressíveis ainda não avaliados, submetendo apenas o que cabe na fila.
+     */
+    @Scheduled(fixedDelayString = "${app.compression.retry-interval-ms:300000}")
+    public void resubmitPending() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        List<Long> pending = contentBlobRepository.findIdsPendingCompression(
+                COMPRESSIBLE_TYPES, maxSourceBytes, Limit.of(capacity));
+        pending.forEach(this::submit);
+    }
+
+    /**
+     * Quantidade de conteúdos aguardando compressão na fila.
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Escolhe a variante a enviar conforme o header Accept-Encoding.
+     * Entre codificações aceitas com o mesmo peso (q), prefere zstd. Retorna null para enviar o original.
+     */
+    public ContentEncoding negotiate(String acceptEncoding, ContentBlob blob) {
+        if (acceptEncoding == null || acceptEncoding.isBlank() || blob == null) {
+            return null;
+        }
+
+        ContentEncoding best = null;
+        double bestWeight = 0;
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            if (blob.variantSize(encoding) == null) {
+                continue;
+            }
+            double weight = weightOf(acceptEncoding, encoding.getToken());
+            if (weight > bestWeight) {
+                best = encoding;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Chave no storage da variante do conteúdo.
+     */
+    public String variantKey(String storageKey, ContentEncoding encoding) {
+        return storageKey + encoding.getKeySuffix();
+    }
+
+    private void submit(Long blobId) {
+        if (!inFlight.add(blobId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(blobId);
+                } finally {
+                    inFlight.remove(blobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(blobId);
+            log.warn("Compressão do conteúdo {} não agendada; será retomada depois", blobId);
+        }
+    }
+
+    /**
+     * Gera as variantes do conteúdo, se ainda não tiver sido avaliado. Em caso de falha o conteúdo
+     * é marcado como avaliado sem variantes, para não ser retentado indefinidamente.
+     * Se o conteúdo for coletado durante a compressão, as variantes gravadas são removidas.
+     */
+    private void generate(Long blobId) {
+        ContentBlob blob = contentBlobRepository.findById(blobId).orElse(null);
+        if (blob == null || blob.getCompressionChecked() || blob.getSizeBytes() > maxSourceBytes) {
+            return;
+        }
+
+        Long gzipSize = null;
+        Long zstdSize = null;
+        try {
+            gzipSize = createVariant(blob, ContentEncoding.GZIP);
+            zstdSize = createVariant(blob, ContentEncoding.ZSTD);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gerar variantes comprimidas de {}", blob.getSha256(), e);
+            deleteVariants(blob);
+            gzipSize = null;
+            zstdSize = null;
+        }
+
+        if (contentBlobRepository.saveVariants(blobId, gzipSize, zstdSize) == 0) {
+            deleteVariants(blob);
+            return;
+        }
+        log.info("Variantes comprimidas de {}: gzip={} zstd={} (original {} bytes)",
+                blob.getSha256(), gzipSize, zstdSize, blob.getSizeBytes());
+    }
+
+    private void deleteVariants(ContentBlob blob) {
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            storageService.delete(variantKey(blob.getStorageKey(), encoding));
+        }
+    }
+
+    /**
+     * Peso (q) da codificação no Accept-Encoding; "*" vale para codificações não listadas.
+     */
+    private double weightOf(String acceptEncoding, String token) {
+        Double wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim();
+            double weight = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        weight = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        weight = 0;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase(token)) {
+                return weight;
+            }
+            if (coding.equals("*")) {
+                wildcard = weight;
+            }
+        }
+        return wildcard != null ? wildcard : 0;
+    }
+
+    /**
+     * Comprime o conteúdo em arquivo temporário local e grava no storage se houver ganho suficiente.
+     * Retorna o tamanho da variante ou null se ela foi descartada.
+     */
+    private Long createVariant(ContentBlob blob, ContentEncoding encoding) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("variant-", encoding.getKeySuffix());
+            try (InputStream in = Channels.newInputStream(storageService.open(blob.getStorageKey()));
+                 OutputStream out = encoder(encoding, Files.newOutputStream(temp))) {
+                in.transferTo(out);
+            }
+
+            long size = Files.size(temp);
+            if (size > blob.getSizeBytes() * MAX_COMPRESSED_RATIO) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(temp)) {
+                storageService.store(variantKey(blob.getStorageKey(), encoding), channel);
+            }
+            return size;
+        } catch (IOException e) {
+            throw new StorageException("Falha ao gerar variante " + encoding.getToken() + " de " + blob.getSha256(), e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private OutputStream encoder(ContentEncoding encoding, OutputStream target) throws IOException {
+        return switch (encoding) {
+            case GZIP -> new GZIPOutputStream(target);
+            case ZSTD -> new ZstdOutputStream(target, zstdLevel);
+        };
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Não foi possível remover arquivo temporário {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
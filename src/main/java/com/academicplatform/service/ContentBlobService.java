@@ -0,0 +1,224 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.ContentBlob;
+import com.academicplatform.enums.ContentEncoding;
+import com.academicplatform.exception.StorageException;
+import com.academicplatform.repository.ContentBlobRepository;
+import com.academicplatform.repository.InstitutionRepository;
+import com.academicplatform.storage.DigestingReadableByteChannel;
+import com.academicplatform.storage.StorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Storage deduplicado, endereçado por conteúdo.
+ * O conteúdo é gravado em área temporária enquanto o SHA-256 é calculado no streaming;
+ * se o hash já existir, o temporário é descartado e apenas a referência é incrementada,
+ * caso contrário o conteúdo é movido para a chave derivada do hash.
+ * Conteúdos novos são removidos do storage se a transação que os criou for desfeita, e uma coleta
+ * periódica recalcula as referências e remove os conteúdos que nenhum arquivo utiliza.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+@Transactional
+public class ContentBlobService {
+
+    private static final String TEMP_PREFIX = "blobs/tmp/";
+    private static final String BLOB_PREFIX = "blobs/";
+
+    private final ContentBlobRepository contentBlobRepository;
+    private final InstitutionRepository institutionRepository;
+    private final StorageService storageService;
+    private final CompressedVariantService compressedVariantService;
+    private final FileContentCache fileContentCache;
+    private final TransactionTemplate newTransaction;
+    private final int collectionBatchSize;
+
+    public ContentBlobService(ContentBlobRepository contentBlobRepository,
+                              InstitutionRepository institutionRepository,
+                              StorageService storageService,
+                              CompressedVariantService compressedVariantService,
+                              FileContentCache fileContentCache,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.storage.blob-collection.batch-size:500}") int collectionBatchSize) {
+        this.contentBlobRepository = contentBlobRepository;
+        this.institutionRepository = institutionRepository;
+        this.storageService = storageService;
+        this.compressedVariantService = compressedVariantService;
+        this.fileContentCache = fileContentCache;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.collectionBatchSize = collectionBatchSize;
+    }
+
+    /**
+     * Armazena o conteúdo do canal (ou reaproveita um conteúdo idêntico) e registra uma referência a ele.
+     * O hash fica bloqueado até o fim da transação, para que a limpeza em rollback e a coleta
+     * não removam um conteúdo que esta transação passou a referenciar.
+     */
+    public ContentBlob ingest(ReadableByteChannel source) {
+        MessageDigest digest = sha256();
+        String tempKey = TEMP_PREFIX + UUID.randomUUID();
+        long size = storageService.store(tempKey, new DigestingReadableByteChannel(source, digest));
+        String hash = HexFormat.of().formatHex(digest.digest());
+        String storageKey = keyFor(hash);
+
+        boolean stored;
+        Long blobId;
+        try {
+            contentBlobRepository.lockContent(hash);
+            blobId = contentBlobRepository.addReference(hash, size, storageKey);
+            stored = !storageService.exists(storageKey);
+            if (stored) {
+                storageService.move(tempKey, storageKey);
+                discardOnRollback(hash, storageKey);
+            }
+        } finally {
+            storageService.delete(tempKey);
+        }
+
+        log.info("Conteúdo {} {} ({} bytes)", hash, stored ? "armazenado" : "deduplicado", size);
+        return contentBlobRepository.getReferenceById(blobId);
+    }
+
+    /**
+     * Coleta de conteúdos sem uso: recalcula reference_count a partir dos arquivos e remove,
+     * do banco e do storage (original, variantes e miniaturas), os conteúdos sem referências.
+     * Cada conteúdo é removido em sua própria transação. Retorna quantos foram removidos.
+     */
+    @Scheduled(cron = "${app.storage.blob-collection.cron:0 30 3 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int collectUnreferenced() {
+        int drift = contentBlobRepository.reconcileReferenceCounts();
+        if (drift > 0) {
+            log.warn("Drift de referências em conteúdos: {} corrigidos", drift);
+        }
+
+        int removed = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = contentBlobRepository.findUnreferencedIdsAfter(afterId, Limit.of(collectionBatchSize));
+            for (Long id : ids) {
+                if (Boolean.TRUE.equals(newTransaction.execute(status -> purgeIfUnreferenced(id)))) {
+                    removed++;
+                }
+                afterId = id;
+            }
+        } while (ids.size() == collectionBatchSize);
+
+        if (removed > 0) {
+            log.info("Conteúdos sem referência removidos: {}", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Armazenamento físico total, em bytes: cada conteúdo conta uma única vez.
+     */
+    @Transactional(readOnly = true)
+    public long getPhysicalUsageBytes() {
+        return contentBlobRepository.sumPhysicalBytes();
+    }
+
+    /**
+     * Armazenamento lógico total, em bytes: soma do uso de todas as instituições,
+     * contando cada arquivo mesmo que o conteúdo seja compartilhado.
+     */
+    @Transactional(readOnly = true)
+    public long getLogicalUsageBytes() {
+        return institutionRepository.sumStorageUsedBytes();
+    }
+
+    /**
+     * Remove o conteúdo, com o hash bloqueado, se ele continuar sem referências.
+     */
+    private boolean purgeIfUnreferenced(Long id) {
+        ContentBlob blob = contentBlobRepository.findById(id).orElse(null);
+        if (blob == null) {
+            return false;
+        }
+        contentBlobRepository.lockContent(blob.getSha256());
+        if (contentBlobRepository.deleteIfUnreferenced(id) == 0) {
+            return false;
+        }
+        deleteStoredObjects(blob.getStorageKey());
+        log.debug("Conteúdo {} removido", blob.getSha256());
+        return true;
+    }
+
+    /**
+     * Se a transação for desfeita, remove do storage o conteúdo que ela criou, a menos que outra
+     * transação já o tenha registrado nesse meio tempo.
+     */
+    private void discardOnRollback(String hash, String storageKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    newTransaction.executeWithoutResult(tx -> {
+                        contentBlobRepository.lockContent(hash);
+                        if (contentBlobRepository.findBySha256(hash).isEmpty()) {
+                            deleteStoredObjects(storageKey);
+                            log.debug("Conteúdo {} descartado após rollback", hash);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    log.warn("Falha ao descartar conteúdo {} após rollback", hash, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Remove o conteúdo original e os objetos derivados dele (variantes comprimidas e miniaturas).
+     */
+    private void deleteStoredObjects(String storageKey) {
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            storageService.delete(compressedVariantService.variantKey(storageKey, encoding));
+        }
+        FilePreviewService.thumbnailKeys(storageKey).forEach(storageService::delete);
+        storageService.delete(storageKey);
+        fileContentCache.invalidate(storageKey);
+    }
+
+    /**
+     * Chave de storage derivada do hash, distribuída em subdiretórios pelos primeiros caracteres.
+     */
+    private String keyFor(String hash) {
+        return BLOB_PREFIX + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new StorageException("Algoritmo SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.academicplatform.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador de downloads com escrita postergada (write-behind).
+ * Acumula incrementos em memória por arquivo usando LongAdder (striped, sem lock)
+ * e descarrega periodicamente um UPDATE incremental por arquivo em um único batch JDBC,
+ * executado em uma transação para que uma falha não deixe parte do batch aplicada.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class DownloadCounterService {
+
+    private static final String FLUSH_SQL = "UPDATE files SET download_count = download_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final LongAdder flushedTotal = new LongAdder();
+
+    public DownloadCounterService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Registra um download do arquivo. Não acessa o banco.
+     */
+    public void record(Long fileId) {
+        add(fileId, 1);
+    }
+
+    /**
+     * Retorna os downloads do arquivo ainda não gravados no banco.
+     */
+    public long pendingFor(Long fileId) {
+        LongAdder adder = pending.get(fileId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Total de downloads acumulados em memória aguardando flush.
+     */
+    public long getPendingDelta() {
+        return pending.values().stream()
+                .mapToLong(LongAdder::sum)
+                .sum();
+    }
+
+    /**
+     * Quantidade de arquivos com contadores em memória.
+     */
+    public int getPendingFiles() {
+        return pending.size();
+    }
+
+    /**
+     * Total de downloads já gravados no banco desde a inicialização.
+     */
+    public long getFlushedTotal() {
+        return flushedTotal.sum();
+    }
+
+    /**
+     * Grava os incrementos acumulados no banco em um único batch.
+     * Executado em intervalo fixo e no desligamento da aplicação.
+     * Em caso de falha, a transação desfaz todo o batch e os incrementos voltam para a memória,
+     * sendo regravados no próximo ciclo sem contagem dupla.
+     */
+    @Scheduled(fixedDelayString = "${app.downloads.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Long> fileIds = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+
+        pending.forEach((fileId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                fileIds.add(fileId);
+                batch.add(new Object[]{delta, fileId});
+            } else if (pending.remove(fileId, adder)) {
+                // Entrada ociosa removida; incrementos feitos durante a remoção são devolvidos.
+                rescue(fileId, adder);
+            }
+        });
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+            long flushed = batch.stream().mapToLong(args -> (Long) args[0]).sum();
+            flushedTotal.add(flushed);
+            log.debug("Flush de downloads: {} arquivos, {} downloads", batch.size(), flushed);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < batch.size(); i++) {
+                add(fileIds.get(i), (Long) batch.get(i)[0]);
+            }
+            log.error("Falha ao gravar contadores de download, {} arquivos serão regravados", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Soma delta ao acumulador do arquivo.
+     * Se o acumulador foi removido pelo flush no meio da operação, o valor é devolvido ao mapa.
+     */
+    private void add(Long fileId, long delta) {
+        LongAdder adder = pending.computeIfAbsent(fileId, id -> new LongAdder());
+        adder.add(delta);
+        if (pending.get(fileId) != adder) {
+            rescue(fileId, adder);
+        }
+    }
+
+    /**
+     * Move o saldo de um acumulador que saiu do mapa para o acumulador atual do arquivo.
+     */
+    private void rescue(Long fileId, LongAdder orphan) {
+        long late = orphan.sumThenReset();
+        if (late > 0) {
+            add(fileId, late);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.academicplatform.service;
+
+import com.academicplatform.repository.FavoriteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cache dos IDs de arquivos favoritos de cada usuário em bitmaps comprimidos (Roaring).
+ * Responde em memória a consultas de pertinência em lote ("quais destes arquivos o usuário favoritou").
+ * O bitmap é carregado sob demanda do FavoriteRepository e atualizado após o commit das mutações;
+ * atualizações trocam o bitmap por uma cópia, então leitores nunca veem um bitmap em modificação.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class FavoriteMembershipService implements MeterBinder {
+
+    private final FavoriteRepository favoriteRepository;
+    private final Cache<Long, Roaring64Bitmap> bitmaps;
+
+    public FavoriteMembershipService(FavoriteRepository favoriteRepository,
+                                     @Value("${app.favorites.bitmap-cache.max-users:10000}") long maxUsers,
+                                     @Value("${app.favorites.bitmap-cache.expire-after-access-minutes:60}") long expireMinutes) {
+        this.favoriteRepository = favoriteRepository;
+        this.bitmaps = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(expireMinutes))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retorna, dentre os IDs informados, os arquivos favoritados pelo usuário, na ordem recebida.
+     */
+    public List<Long> filterFavorited(Long userId, Collection<Long> fileIds) {
+        Roaring64Bitmap favorites = bitmapOf(userId);
+        return fileIds.stream()
+                .filter(fileId -> fileId != null && favorites.contains(fileId))
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Verifica se o arquivo está nos favoritos do usuário.
+     */
+    public boolean contains(Long userId, Long fileId) {
+        return bitmapOf(userId).contains(fileId);
+    }
+
+    /**
+     * Registra favoritos adicionados, aplicando ao bitmap após o commit da transação corrente.
+     */
+    public void added(Long userId, Collection<Long> fileIds) {
+        afterCommit(() -> update(userId, fileIds, true));
+    }
+
+    /**
+     * Registra favoritos removidos, aplicando ao bitmap após o commit da transação corrente.
+     */
+    public void removed(Long userId, Collection<Long> fileIds) {
+        afterCommit(() -> update(userId, fileIds, false));
+    }
+
+    /**
+     * Descarta o bitmap do usuário; o próximo acesso recarrega do banco.
+     */
+    public void invalidate(Long userId) {
+        bitmaps.invalidate(userId);
+    }
+
+    /**
+     * Publica as estatísticas do cache de bitmaps (cache.* com cache=favorite-membership).
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, bitmaps, "favorite-membership");
+    }
+
+    private Roaring64Bitmap bitmapOf(Long userId) {
+        return bitmaps.get(userId, this::load);
+    }
+
+    private Roaring64Bitmap load(Long userId) {
+        Roaring64Bitmap bitmap = new Roaring64Bitmap();
+        favoriteRepository.findFileIdsByUserId(userId).forEach(bitmap::addLong);
+        bitmap.runOptimize();
+        log.debug("Bitmap de favoritos carregado: usuário {} ({} arquivos)", userId, bitmap.getLongCardinality());
+        return bitmap;
+    }
+
+    /**
+     * Aplica a mudança somente se o bitmap estiver em cache; caso contrário ele será carregado já atualizado.
+     */
+    private void update(Long userId, Collection<Long> fileIds, boolean add) {
+        bitmaps.asMap().computeIfPresent(userId, (id, current) -> {
+            Roaring64Bitmap copy = current.clone();
+            for (Long fileId : fileIds) {
+                if (add) {
+                    copy.addLong(fileId);
+                } else {
+                    copy.removeLong(fileId);
+                }
+            }
+            return copy;
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,17 +1,20 @@
 package com.academicplatform.service;
 
+import com.academicplatform.dto.response.CursorPageResponse;
 import com.academicplatform.dto.response.FileResponse;
-import com.academicplatform.entity.Favorite;
-import com.academicplatform.entity.File;
-import com.academicplatform.entity.User;
 import com.academicplatform.repository.FavoriteRepository;
+import com.academicplatform.util.KeysetCursor;
 import com.academicplatform.util.ServiceHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -25,68 +28,142 @@ import java.util.stream.Collectors;
 @Transactional
 public class FavoriteService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final FavoriteRepository favoriteRepository;
     private final FileService fileService;
     private final ServiceHelper serviceHelper;
+    private final FavoriteMembershipService favoriteMembershipService;
+    private final TrendingService trendingService;
 
     /**
      * Adiciona um arquivo aos favoritos do usuário.
-     * Se já for favorito, não faz nada.
+     * Se já for favorito, não faz nada. Retorna true se o favorito foi criado.
      */
-    public void addFavorite(Long fileId, Long userId) {
-        File file = serviceHelper.findFileOrThrow(fileId);
-        User user = serviceHelper.findUserOrThrow(userId);
+    public boolean addFavorite(Long fileId, Long userId) {
+        return !addFavorites(userId, List.of(fileId)).isEmpty();
+    }
 
-        if (favoriteRepository.existsByUserAndFile(user, file)) {
-            log.debug("Arquivo {} já está nos favoritos do usuário {}", fileId, userId);
-            return;
-        }
+    /**
+     * Remove um arquivo dos favoritos do usuário.
+     * Se não for favorito, não faz nada. Retorna true se o favorito foi removido.
+     */
+    public boolean removeFavorite(Long fileId, Long userId) {
+        return !removeFavorites(userId, List.of(fileId)).isEmpty();
+    }
 
-        Favorite favorite = Favorite.builder()
-                .user(user)
-                .file(file)
-                .build();
+    /**
+     * Adiciona vários arquivos aos favoritos do usuário em um único statement (upsert),
+     * sem carregar entidades. Idempotente: arquivos já favoritos ou inexistentes são ignorados.
+     * Retorna os IDs dos arquivos efetivamente adicionados.
+     */
+    public List<Long> addFavorites(Long userId, Collection<Long> fileIds) {
+        if (fileIds == null || fileIds.isEmpty()) {
+            return List.of();
+        }
 
-        favoriteRepository.save(favorite);
-        log.info("Favorito adicionado: arquivo {} para usuário {}", fileId, userId);
+        List<Long> added = favoriteRepository.insertFavorites(userId, distinctIds(fileIds));
+        if (!added.isEmpty()) {
+            favoriteMembershipService.added(userId, added);
+            trendingService.recordFavorites(added);
+            log.info("Favoritos adicionados para usuário {}: {}", userId, added);
+        }
+        return added;
     }
 
     /**
-     * Remove um arquivo dos favoritos do usuário.
+     * Remove vários arquivos dos favoritos do usuário em um único statement, sem carregar entidades.
+     * Idempotente: arquivos que não eram favoritos são ignorados.
+     * Retorna os IDs dos arquivos efetivamente removidos.
      */
-    public void removeFavorite(Long fileId, Long userId) {
-        File file = serviceHelper.findFileOrThrow(fileId);
-        User user = serviceHelper.findUserOrThrow(userId);
-
-        Favorite favorite = favoriteRepository.findByUserAndFile(user, file)
-                .orElseThrow(() -> new RuntimeException("Favorito não encontrado"));
+    public List<Long> removeFavorites(Long userId, Collection<Long> fileIds) {
+        if (fileIds == null || fileIds.isEmpty()) {
+            return List.of();
+        }
 
-        favoriteRepository.delete(favorite);
-        log.info("Favorito removido: arquivo {} do usuário {}", fileId, userId);
+        List<Long> removed = favoriteRepository.deleteFavorites(userId, distinctIds(fileIds));
+        if (!removed.isEmpty()) {
+            favoriteMembershipService.removed(userId, removed);
+            log.info("Favoritos removidos do usuário {}: {}", userId, removed);
+        }
+        return removed;
     }
 
     /**
-     * Lista arquivos favoritos de um usuário.
+     * Lista arquivos favoritos de um usuário, mais recentes primeiro.
+     * Usa projeção em consulta única, sem buscar cada arquivo separadamente.
      */
     @Transactional(readOnly = true)
     public List<FileResponse> findByUser(Long userId) {
-        User user = serviceHelper.findUserOrThrow(userId);
+        serviceHelper.findUserOrThrow(userId);
 
-        return favoriteRepository.findByUserOrderByCreatedAtDesc(user).stream()
-                .map(Favorite::getFile)
-                .map(file -> fileService.findById(file.getId()))
+        List<FileResponse> files = favoriteRepository.findFavoriteFileRowsByUser(userId).stream()
+                .map(row -> (FileResponse) row[0])
                 .collect(Collectors.toList());
+        return fileService.withPendingDownloads(files);
+    }
+
+    /**
+     * Lista uma página dos arquivos favoritos de um usuário usando paginação por cursor
+     * sobre a data do favorito (mais recentes primeiro).
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<FileResponse> findByUser(Long userId, String cursor, int size) {
+        serviceHelper.findUserOrThrow(userId);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Object[]> rows = position == null
+                ? favoriteRepository.findFirstFavoriteFileRowsByUser(userId, limit)
+                : favoriteRepository.findFavoriteFileRowsByUserAfter(userId,
+                        position.getCreatedAt(), position.getId(), limit);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<Object[]> page = hasNext ? rows.subList(0, pageSize) : rows;
+        List<FileResponse> content = page.stream()
+                .map(row -> (FileResponse) row[0])
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor((LocalDateTime) last[1], ((FileResponse) last[0]).getId()).encode();
+        }
+
+        return CursorPageResponse.<FileResponse>builder()
+                .content(fileService.withPendingDownloads(content))
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Retorna quais dos arquivos informados estão nos favoritos do usuário, em uma única chamada.
+     * Respondido pelo bitmap de favoritos em memória, sem consultar arquivos nem favoritos por ID.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findFavoritedFileIds(Long userId, Collection<Long> fileIds) {
+        if (fileIds == null || fileIds.isEmpty()) {
+            return List.of();
+        }
+        return favoriteMembershipService.filterFavorited(userId, fileIds);
     }
 
     /**
      * Verifica se um arquivo está nos favoritos do usuário.
+     * Respondido pelo bitmap de favoritos em memória, como findFavoritedFileIds.
      */
     @Transactional(readOnly = true)
     public boolean isFavorite(Long fileId, Long userId) {
-        File file = serviceHelper.findFileOrThrow(fileId);
-        User user = serviceHelper.findUserOrThrow(userId);
+        return fileId != null && favoriteMembershipService.contains(userId, fileId);
+    }
 
-        return favoriteRepository.existsByUserAndFile(user, file);
+    private List<Long> distinctIds(Collection<Long> fileIds) {
+        return fileIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
     }
 }
 
@@ -0,0 +1,107 @@
+package com.academicplatform.service;
+
+import com.academicplatform.exception.StorageException;
+import com.academicplatform.storage.StorageService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Cache em memória do conteúdo dos arquivos mais baixados.
+ * Limitado pelo total de bytes (cada entrada pesa o tamanho do conteúdo) e com admissão W-TinyLFU do Caffeine,
+ * que evita que arquivos baixados uma única vez expulsem os mais populares.
+ * Apenas arquivos até max-entry-bytes são cacheados; os maiores seguem pelo storage em zero-copy.
+ * As entradas são indexadas pela chave de storage: como o storage é endereçado por conteúdo, arquivos
+ * com o mesmo conteúdo compartilham uma única entrada e uma chave nunca muda de conteúdo.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class FileContentCache implements MeterBinder {
+
+    private final StorageService storageService;
+    private final long maxEntryBytes;
+    private final Cache<String, byte[]> cache;
+
+    public FileContentCache(StorageService storageService,
+                            @Value("${app.downloads.cache.max-bytes:268435456}") long maxBytes,
+                            @Value("${app.downloads.cache.max-entry-bytes:8388608}") long maxEntryBytes) {
+        this.storageService = storageService;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String storageKey, byte[] content) -> content.length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retorna o conteúdo da chave a partir do cache, carregando do storage na primeira leitura.
+     * Retorna null se o conteúdo não for cacheável (grande demais) ou não existir no storage.
+     */
+    public byte[] get(String storageKey, long size) {
+        if (size > maxEntryBytes) {
+            return null;
+        }
+        return cache.get(storageKey, this::load);
+    }
+
+    /**
+     * Remove o conteúdo da chave do cache (ex: conteúdo removido do storage).
+     */
+    public void invalidate(String storageKey) {
+        cache.invalidate(storageKey);
+    }
+
+    /**
+     * Total de bytes atualmente em cache.
+     */
+    public long getCachedBytes() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    /**
+     * Publica as estatísticas do cache (cache.* com cache=file-content) e os bytes em cache.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "file-content");
+        Gauge.builder("app.downloads.cache.bytes", this, FileContentCache::getCachedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private byte[] load(String storageKey) {
+        if (!storageService.exists(storageKey)) {
+            return null;
+        }
+        long size = storageService.size(storageKey);
+        if (size > maxEntryBytes) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        try (ReadableByteChannel in = storageService.open(storageKey)) {
+            while (buffer.hasRemaining() && in.read(buffer) != -1) {
+                // lê até preencher o buffer
+            }
+        } catch (IOException e) {
+            throw new StorageException("Falha ao ler arquivo do storage: " + storageKey, e);
+        }
+        log.debug("Conteúdo carregado no cache: {} ({} bytes)", storageKey, size);
+        return buffer.array();
+    }
+}
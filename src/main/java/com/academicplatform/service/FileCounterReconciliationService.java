@@ -0,0 +1,74 @@
+package com.academicplatform.service;
+
+import com.academicplatform.repository.FileRepository;
+import com.academicplatform.repository.InstitutionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Job de reconciliação dos contadores desnormalizados de File (favoritos e comentários).
+ * Recalcula os contadores por instituição, em paralelo, e reporta o drift encontrado.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class FileCounterReconciliationService {
+
+    private final FileRepository fileRepository;
+    private final InstitutionRepository institutionRepository;
+    private final ExecutorService executor;
+
+    public FileCounterReconciliationService(FileRepository fileRepository,
+                                            InstitutionRepository institutionRepository,
+                                            @Value("${app.reconciliation.parallelism:4}") int parallelism) {
+        this.fileRepository = fileRepository;
+        this.institutionRepository = institutionRepository;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    /**
+     * Reconcilia os contadores de todas as instituições.
+     * Cada instituição é um lote executado em sua própria transação.
+     * Retorna o total de arquivos cujos contadores estavam divergentes.
+     */
+    @Scheduled(cron = "${app.reconciliation.file-counters.cron:0 0 3 * * *}")
+    public long reconcileAll() {
+        List<CompletableFuture<Integer>> batches = institutionRepository.findAllIds().stream()
+                .map(institutionId -> CompletableFuture.supplyAsync(() -> reconcileInstitution(institutionId), executor))
+                .toList();
+
+        long totalDrift = batches.stream()
+                .mapToLong(CompletableFuture::join)
+                .sum();
+
+        log.info("Reconciliação de contadores concluída: {} instituições, {} arquivos corrigidos",
+                batches.size(), totalDrift);
+        return totalDrift;
+    }
+
+    /**
+     * Reconcilia os contadores dos arquivos de uma instituição.
+     * Retorna quantos arquivos tiveram contadores corrigidos.
+     */
+    public int reconcileInstitution(Long institutionId) {
+        int drift = fileRepository.reconcileCountersByInstitution(institutionId);
+        if (drift > 0) {
+            log.warn("Drift de contadores na instituição {}: {} arquivos corrigidos", institutionId, drift);
+        }
+        return drift;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
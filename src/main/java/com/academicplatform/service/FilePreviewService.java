@@ -0,0 +1,283 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.File;
+import com.academicplatform.enums.FileType;
+import com.academicplatform.enums.PreviewStatus;
+import com.academicplatform.exception.StorageException;
+import com.academicplatform.repository.FileRepository;
+import com.academicplatform.storage.StorageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geração de prévias em segundo plano: miniaturas para imagens e trecho inicial do texto
+ * para TXT e PDF (primeira página). As miniaturas são gravadas no storage ao lado do conteúdo
+ * e os resultados ficam no próprio File, para que listagens nunca leiam o arquivo original.
+ * Executa em pool limitado com fila limitada; com a fila cheia a tarefa é recusada e a prévia,
+ * ainda pendente, é retomada pela varredura periódica. Imagens acima do limite de pixels são recusadas
+ * antes da decodificação.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class FilePreviewService {
+
+    private static final Set<FileType> IMAGE_TYPES =
+            EnumSet.of(FileType.IMG, FileType.JPG, FileType.JPEG, FileType.PNG, FileType.GIF);
+    private static final Set<FileType> TEXT_TYPES = EnumSet.of(FileType.TXT, FileType.PDF);
+
+    private static final int THUMBNAIL_MAX_DIMENSION = 320;
+    private static final List<String> THUMBNAIL_FORMATS = List.of("png", "jpg");
+    private static final int SNIPPET_MAX_CHARS = 500;
+    private static final int TEXT_SAMPLE_BYTES = 4096;
+
+    private final FileRepository fileRepository;
+    private final StorageService storageService;
+    private final long maxSourceBytes;
+    private final long maxImagePixels;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public FilePreviewService(FileRepository fileRepository,
+                              StorageService storageService,
+                              @Value("${app.previews.workers:2}") int workers,
+                              @Value("${app.previews.queue-capacity:100}") int queueCapacity,
+                              @Value("${app.previews.max-source-bytes:52428800}") long maxSourceBytes,
+                              @Value("${app.previews.max-image-pixels:40000000}") long maxImagePixels) {
+        this.fileRepository = fileRepository;
+        this.storageService = storageService;
+        this.maxSourceBytes = maxSourceBytes;
+        this.maxImagePixels = maxImagePixels;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Indica se o tipo de arquivo tem prévia.
+     */
+    public static boolean supports(FileType fileType) {
+        return IMAGE_TYPES.contains(fileType) || TEXT_TYPES.contains(fileType);
+    }
+
+    /**
+     * Agenda a geração da prévia para depois do commit da transação corrente.
+     */
+    public void schedule(Long fileId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(fileId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(fileId);
+            }
+        });
+    }
+
+    /**
+     * Retoma prévias pendentes (fila perdida em reinício, uploads anteriores ao pipeline),
+     * submetendo apenas o que cabe na fila para não bloquear o agendador.
+     */
+    @Scheduled(fixedDelayString = "${app.previews.retry-interval-ms:300000}")
+    public void resubmitPending() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        List<Long> pending = fileRepository.findIdsByPreviewStatus(PreviewStatus.PENDING, Limit.of(capacity));
+        pending.forEach(this::submit);
+    }
+
+    /**
+     * Quantidade de prévias aguardando na fila.
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    private void submit(Long fileId) {
+        if (!inFlight.add(fileId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(fileId);
+                } finally {
+                    inFlight.remove(fileId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(fileId);
+            log.warn("Prévia do arquivo {} não agendada; será retomada depois", fileId);
+        }
+    }
+
+    private void generate(Long fileId) {
+        File file = fileRepository.findById(fileId).orElse(null);
+        if (file == null || file.getPreviewStatus() != PreviewStatus.PENDING) {
+            return;
+        }
+
+        String sourcePath = file.getFilePath();
+        if (sourcePath == null || file.getFileSize() > maxSourceBytes || !storageService.exists(sourcePath)) {
+            fileRepository.savePreview(fileId, sourcePath, PreviewStatus.NOT_AVAILABLE, null, null);
+            return;
+        }
+
+        try {
+            if (IMAGE_TYPES.contains(file.getFileType())) {
+                String thumbnailPath = generateThumbnail(sourcePath);
+                fileRepository.savePreview(fileId, sourcePath, PreviewStatus.READY, thumbnailPath, null);
+            } else {
+                String text = file.getFileType() == FileType.PDF
+                        ? extractPdfFirstPage(sourcePath)
+                        : extractTextStart(sourcePath);
+                fileRepository.savePreview(fileId, sourcePath, PreviewStatus.READY, null, toSnippet(text));
+            }
+            log.debug("Prévia gerada para arquivo {}", fileId);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Falha ao gerar prévia do arquivo {}", fileId, e);
+            fileRepository.savePreview(fileId, sourcePath, PreviewStatus.FAILED, null, null);
+        }
+    }
+
+    /**
+     * Reduz a imagem para no máximo THUMBNAIL_MAX_DIMENSION no maior lado e grava ao lado do original.
+     * Imagens com transparência geram PNG; as demais, JPEG.
+     */
+    private String generateThumbnail(String sourcePath) throws IOException {
+        BufferedImage source = readImage(sourcePath);
+
+        double scale = Math.min(1.0, (double) THUMBNAIL_MAX_DIMENSION / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        boolean alpha = source.getColorModel().hasAlpha();
+
+        BufferedImage thumbnail = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+
+        String format = alpha ? "png" : "jpg";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, format, out);
+
+        String thumbnailPath = thumbnailKey(sourcePath, format);
+        storageService.store(thumbnailPath, Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        return thumbnailPath;
+    }
+
+    /**
+     * Decodifica a imagem após conferir as dimensões no cabeçalho, recusando imagens acima de
+     * max-image-pixels (uma imagem pequena em bytes pode ocupar gigabytes decodificada).
+     * Imagens grandes são lidas com subamostragem, já que só a miniatura é necessária.
+     */
+    private BufferedImage readImage(String sourcePath) throws IOException {
+        try (InputStream raw = Channels.newInputStream(storageService.open(sourcePath));
+             ImageInputStream in = ImageIO.createImageInputStream(raw)) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new StorageException("Formato de imagem não reconhecido: " + sourcePath);
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxImagePixels) {
+                    throw new StorageException("Imagem excede o limite de pixels para miniatura: "
+                            + width + "x" + height);
+                }
+
+                int subsampling = Math.max(1, Math.max(width, height) / (THUMBNAIL_MAX_DIMENSION * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Chaves no storage de todas as miniaturas possíveis de um conteúdo (uma por formato).
+     */
+    static List<String> thumbnailKeys(String sourcePath) {
+        return THUMBNAIL_FORMATS.stream()
+                .map(format -> thumbnailKey(sourcePath, format))
+                .toList();
+    }
+
+    private static String thumbnailKey(String sourcePath, String format) {
+        return sourcePath + ".thumbnail." + format;
+    }
+
+    private String extractTextStart(String sourcePath) throws IOException {
+        try (InputStream in = Channels.newInputStream(storageService.open(sourcePath))) {
+            return new String(in.readNBytes(TEXT_SAMPLE_BYTES), StandardCharsets.UTF_8);
+        }
+    }
+
+    private String extractPdfFirstPage(String sourcePath) throws IOException {
+        try (InputStream in = Channels.newInputStream(storageService.open(sourcePath));
+             PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(in))) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(1);
+            stripper.setEndPage(1);
+            return stripper.getText(document);
+        }
+    }
+
+    /**
+     * Troca caracteres de controle e bytes inválidos por espaço, normaliza espaços
+     * e limita o trecho a SNIPPET_MAX_CHARS caracteres.
+     */
+    private String toSnippet(String text) {
+        String normalized = text.replaceAll("[\\p{Cntrl}\\uFFFD\\s]+", " ").strip();
+        return normalized.length() > SNIPPET_MAX_CHARS ? normalized.substring(0, SNIPPET_MAX_CHARS) : normalized;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
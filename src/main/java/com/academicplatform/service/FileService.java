@@ -1,22 +1,42 @@
 package com.academicplatform.service;
 
 import com.academicplatform.dto.request.FileRequest;
+import com.academicplatform.dto.response.CursorPageResponse;
 import com.academicplatform.dto.response.FileResponse;
+import com.academicplatform.entity.ContentBlob;
+import com.academicplatform.enums.ContentEncoding;
 import com.academicplatform.entity.Discipline;
 import com.academicplatform.entity.File;
+import com.academicplatform.entity.Institution;
 import com.academicplatform.entity.User;
 import com.academicplatform.enums.FileStatus;
-import com.academicplatform.repository.CommentRepository;
-import com.academicplatform.repository.FavoriteRepository;
+import com.academicplatform.enums.FileType;
+import com.academicplatform.enums.PreviewStatus;
+import com.academicplatform.enums.TotalCountMode;
+import com.academicplatform.exception.BusinessException;
 import com.academicplatform.repository.FileRepository;
+import com.academicplatform.storage.ByteRange;
+import com.academicplatform.storage.FileDownload;
+import com.academicplatform.storage.SizeLimitedReadableByteChannel;
+import com.academicplatform.storage.StorageService;
+import com.academicplatform.util.KeysetCursor;
 import com.academicplatform.util.ServiceHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.channels.ReadableByteChannel;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -30,39 +50,167 @@ import java.util.stream.Collectors;
 @Transactional
 public class FileService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final FileRepository fileRepository;
-    private final FavoriteRepository favoriteRepository;
-    private final CommentRepository commentRepository;
     private final ServiceHelper serviceHelper;
+    private final DownloadCounterService downloadCounterService;
+    private final StorageUsageService storageUsageService;
+    private final StorageQuotaService storageQuotaService;
+    private final StorageService storageService;
+    private final ContentBlobService contentBlobService;
+    private final FileContentCache fileContentCache;
+    private final FilePreviewService filePreviewService;
+    private final CompressedVariantService compressedVariantService;
+    private final TrendingService trendingService;
+
+    /**
+     * Se true, leituras somam ao downloadCount os downloads ainda não gravados no banco.
+     */
+    @Value("${app.downloads.include-pending-in-reads:false}")
+    private boolean includePendingDownloads;
 
     /**
      * Cria um novo arquivo.
      * O arquivo é criado com status PENDING e precisa ser aprovado.
+     * Reserva o tamanho do arquivo na cota da instituição; a reserva é liberada se a criação falhar.
      */
     public FileResponse create(FileRequest request, Long uploadedById) {
         Discipline discipline = serviceHelper.findDisciplineOrThrow(request.getDisciplineId());
         User uploadedBy = serviceHelper.findUserOrThrow(uploadedById);
+        storageQuotaService.reserve(discipline.getInstitution(), request.getFileSize());
 
-        File file = File.builder()
-                .title(request.getTitle())
-                .fileName(request.getFileName())
-                .fileType(request.getFileType())
-                .fileSize(request.getFileSize())
-                .filePath(request.getFilePath())
-                .description(request.getDescription())
-                .discipline(discipline)
-                .institution(discipline.getInstitution())
-                .uploadedBy(uploadedBy)
-                .status(FileStatus.PENDING)
-                .version(request.getVersion())
-                .build();
-
+        File file = buildFile(request, discipline, uploadedBy);
         File saved = fileRepository.save(file);
+        storageUsageService.fileCreated(saved);
         log.info("Arquivo criado: {}", saved.getId());
 
         return toResponse(saved);
     }
 
+    /**
+     * Cria um novo arquivo gravando o conteúdo no storage deduplicado.
+     * O conteúdo é transmitido por canal direto para o storage, sem ser carregado em memória;
+     * se um conteúdo idêntico já existir, o arquivo passa a referenciá-lo sem nova cópia.
+     * O tamanho declarado é reservado na cota (uso lógico); se o conteúdo ultrapassar o declarado,
+     * o upload é interrompido nesse ponto e recusado. Variantes gzip/zstd (tipos compressíveis)
+     * e a prévia são geradas em segundo plano após o commit.
+     */
+    public FileResponse create(FileRequest request, Long uploadedById, ReadableByteChannel content) {
+        Discipline discipline = serviceHelper.findDisciplineOrThrow(request.getDisciplineId());
+        User uploadedBy = serviceHelper.findUserOrThrow(uploadedById);
+        Long institutionId = discipline.getInstitution().getId();
+        storageQuotaService.reserve(discipline.getInstitution(), request.getFileSize());
+
+        ContentBlob blob = contentBlobService.ingest(new SizeLimitedReadableByteChannel(content,
+                request.getFileSize(), "Conteúdo enviado é maior que o tamanho declarado do arquivo"));
+        long written = blob.getSizeBytes();
+        if (written < request.getFileSize()) {
+            storageQuotaService.adjustAfterCommit(institutionId, written - request.getFileSize());
+        }
+
+        File file = buildFile(request, discipline, uploadedBy);
+        file.setContentBlob(blob);
+        file.setFilePath(blob.getStorageKey());
+        file.setFileSize(written);
+        if (FilePreviewService.supports(file.getFileType())) {
+            file.setPreviewStatus(PreviewStatus.PENDING);
+        }
+
+        File saved = fileRepository.save(file);
+        storageUsageService.fileCreated(saved);
+        compressedVariantService.schedule(blob.getId(), saved.getFileType());
+        if (saved.getPreviewStatus() == PreviewStatus.PENDING) {
+            filePreviewService.schedule(saved.getId());
+        }
+        log.info("Arquivo criado com conteúdo: {} ({} bytes)", saved.getId(), written);
+
+        return toResponse(saved);
+    }
+
+    /**
+     * Prepara o download do conteúdo de um arquivo, opcionalmente de um intervalo (header HTTP Range).
+     * O download é contado apenas quando começa no primeiro byte, para que retomadas
+     * e leituras parciais do mesmo cliente não inflem o contador.
+     * Arquivos pequenos e médios são servidos do cache em memória, sem acesso ao disco.
+     */
+    @Transactional(readOnly = true)
+    public FileDownload openDownload(Long id, String rangeHeader) {
+        return openDownload(id, rangeHeader, null);
+    }
+
+    /**
+     * Prepara o download da miniatura de um arquivo de imagem, gerada pelo pipeline de prévias.
+     */
+    @Transactional(readOnly = true)
+    public FileDownload openThumbnail(Long id) {
+        File file = serviceHelper.findFileOrThrow(id);
+        String thumbnailKey = file.getThumbnailPath();
+        if (thumbnailKey == null || !storageService.exists(thumbnailKey)) {
+            throw new BusinessException("Arquivo sem miniatura disponível");
+        }
+
+        return FileDownload.builder()
+                .storageKey(thumbnailKey)
+                .fileName(file.getFileName() + ".thumbnail" + thumbnailKey.substring(thumbnailKey.lastIndexOf('.')))
+                .contentType(MediaTypeFactory.getMediaType(thumbnailKey)
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM).toString())
+                .totalSize(storageService.size(thumbnailKey))
+                .storageService(storageService)
+                .build();
+    }
+
+    /**
+     * Prepara o download negociando a codificação pelo header Accept-Encoding.
+     * Se o cliente aceitar e houver variante pré-comprimida, ela é enviada como está (Content-Encoding);
+     * requisições com Range recebem sempre o conteúdo original.
+     */
+    @Transactional(readOnly = true)
+    public FileDownload openDownload(Long id, String rangeHeader, String acceptEncoding) {
+        File file = serviceHelper.findFileOrThrow(id);
+        if (file.getFilePath() == null) {
+            throw new BusinessException("Arquivo sem conteúdo disponível no storage");
+        }
+
+        ContentEncoding encoding = rangeHeader == null
+                ? compressedVariantService.negotiate(acceptEncoding, file.getContentBlob())
+                : null;
+        if (encoding != null) {
+            incrementDownloadCount(id);
+            trendingService.recordDownload(file);
+            return FileDownload.builder()
+                    .storageKey(compressedVariantService.variantKey(file.getFilePath(), encoding))
+                    .fileName(file.getFileName())
+                    .contentType(contentTypeOf(file))
+                    .totalSize(file.getContentBlob().variantSize(encoding))
+                    .contentEncoding(encoding)
+                    .storageService(storageService)
+                    .build();
+        }
+
+        byte[] cached = fileContentCache.get(file.getFilePath(), file.getFileSize());
+        if (cached == null && !storageService.exists(file.getFilePath())) {
+            throw new BusinessException("Arquivo sem conteúdo disponível no storage");
+        }
+
+        long totalSize = cached != null ? cached.length : storageService.size(file.getFilePath());
+        ByteRange range = ByteRange.parse(rangeHeader, totalSize);
+        if (range == null || range.getStart() == 0) {
+            incrementDownloadCount(id);
+            trendingService.recordDownload(file);
+        }
+
+        return FileDownload.builder()
+                .storageKey(file.getFilePath())
+                .fileName(file.getFileName())
+                .contentType(contentTypeOf(file))
+                .totalSize(totalSize)
+                .range(range)
+                .storageService(storageService)
+                .cachedContent(cached)
+                .build();
+    }
+
     /**
      * Busca arquivo por ID.
      */
@@ -74,25 +222,90 @@ public class FileService {
 
     /**
      * Lista arquivos aprovados de uma disciplina (visíveis para alunos).
+     * Usa projeção em consulta única, sem lazy loading nem contagens por arquivo.
      */
     @Transactional(readOnly = true)
     public List<FileResponse> findApprovedByDiscipline(Long disciplineId) {
-        Discipline discipline = serviceHelper.findDisciplineOrThrow(disciplineId);
-
-        return fileRepository.findApprovedFilesByDiscipline(discipline).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        serviceHelper.findDisciplineOrThrow(disciplineId);
+        return withPendingDownloads(fileRepository.findApprovedFileResponsesByDiscipline(disciplineId));
     }
 
     /**
      * Lista arquivos pendentes de aprovação de uma instituição (para admins).
+     * Usa projeção em consulta única, mais recentes primeiro.
      */
     @Transactional(readOnly = true)
     public List<FileResponse> findPendingByInstitution(Long institutionId) {
-        return fileRepository.findByStatusAndInstitution(FileStatus.PENDING, 
-                serviceHelper.findInstitutionOrThrow(institutionId)).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        serviceHelper.findInstitutionOrThrow(institutionId);
+        return withPendingDownloads(fileRepository.findPendingFileResponsesByInstitution(institutionId));
+    }
+
+    /**
+     * Lista uma página de arquivos aprovados de uma disciplina usando paginação por cursor.
+     * O custo de cada página é constante, independentemente da profundidade.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<FileResponse> findApprovedByDiscipline(Long disciplineId, String cursor,
+                                                                     int size, TotalCountMode countMode) {
+        serviceHelper.findDisciplineOrThrow(disciplineId);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Limit limit = Limit.of(normalizePageSize(size) + 1);
+
+        List<FileResponse> rows = position == null
+                ? fileRepository.findFirstApprovedFileResponsesByDiscipline(disciplineId, limit)
+                : fileRepository.findApprovedFileResponsesByDisciplineAfter(disciplineId,
+                        position.getCreatedAt(), position.getId(), limit);
+
+        Long total = switch (countMode) {
+            case EXACT -> fileRepository.countByStatusAndDisciplineId(FileStatus.APPROVED, disciplineId);
+            case ESTIMATED -> fileRepository.estimateCountByDisciplineAndStatus(disciplineId, FileStatus.APPROVED);
+            case NONE -> null;
+        };
+
+        return toCursorPage(rows, normalizePageSize(size), total, countMode);
+    }
+
+    /**
+     * Lista uma página de arquivos pendentes de uma instituição usando paginação por cursor.
+     * O custo de cada página é constante, independentemente da profundidade.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<FileResponse> findPendingByInstitution(Long institutionId, String cursor,
+                                                                     int size, TotalCountMode countMode) {
+        Institution institution = serviceHelper.findInstitutionOrThrow(institutionId);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Limit limit = Limit.of(normalizePageSize(size) + 1);
+
+        List<FileResponse> rows = position == null
+                ? fileRepository.findFirstPendingFileResponsesByInstitution(institutionId, limit)
+                : fileRepository.findPendingFileResponsesByInstitutionAfter(institutionId,
+                        position.getCreatedAt(), position.getId(), limit);
+
+        Long total = switch (countMode) {
+            case EXACT -> fileRepository.countByStatusAndInstitution(FileStatus.PENDING, institution);
+            case ESTIMATED -> fileRepository.estimateCountByInstitutionAndStatus(institutionId, FileStatus.PENDING);
+            case NONE -> null;
+        };
+
+        return toCursorPage(rows, normalizePageSize(size), total, countMode);
+    }
+
+    /**
+     * Lista os arquivos aprovados em alta na disciplina (downloads e favoritos recentes, com decaimento).
+     */
+    @Transactional(readOnly = true)
+    public List<FileResponse> findTrendingByDiscipline(Long disciplineId, int limit) {
+        serviceHelper.findDisciplineOrThrow(disciplineId);
+        return findRanked(trendingService.topByDiscipline(disciplineId, normalizePageSize(limit)));
+    }
+
+    /**
+     * Lista os arquivos aprovados em alta na instituição (downloads e favoritos recentes, com decaimento).
+     */
+    @Transactional(readOnly = true)
+    public List<FileResponse> findTrendingByInstitution(Long institutionId, int limit) {
+        serviceHelper.findInstitutionOrThrow(institutionId);
+        return findRanked(trendingService.topByInstitution(institutionId, normalizePageSize(limit)));
     }
 
     /**
@@ -100,10 +313,12 @@ public class FileService {
      */
     public FileResponse approve(Long id) {
         File file = serviceHelper.findFileOrThrow(id);
+        FileStatus previousStatus = file.getStatus();
         file.setStatus(FileStatus.APPROVED);
         file.setApprovedAt(LocalDateTime.now());
 
         File saved = fileRepository.save(file);
+        storageUsageService.statusChanged(saved, previousStatus);
         log.info("Arquivo aprovado: {}", saved.getId());
 
         return toResponse(saved);
@@ -114,9 +329,14 @@ public class FileService {
      */
     public FileResponse reject(Long id) {
         File file = serviceHelper.findFileOrThrow(id);
+        FileStatus previousStatus = file.getStatus();
         file.setStatus(FileStatus.REJECTED);
 
         File saved = fileRepository.save(file);
+        storageUsageService.statusChanged(saved, previousStatus);
+        if (previousStatus == FileStatus.APPROVED) {
+            trendingService.remove(saved.getId(), saved.getDiscipline().getId(), saved.getInstitution().getId());
+        }
         log.info("Arquivo rejeitado: {}", saved.getId());
 
         return toResponse(saved);
@@ -124,45 +344,74 @@ public class FileService {
 
     /**
      * Incrementa o contador de downloads do arquivo.
+     * O incremento é acumulado em memória e gravado em lote, sem transação nem SELECT por download.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void incrementDownloadCount(Long id) {
-        File file = serviceHelper.findFileOrThrow(id);
-
-        file.setDownloadCount(file.getDownloadCount() + 1);
-        fileRepository.save(file);
+        downloadCounterService.record(id);
         log.debug("Download contado para arquivo: {}", id);
     }
 
     /**
      * Atualiza informações de um arquivo.
+     * Apenas metadados mudam; o conteúdo no storage não é alterado por aqui.
+     * Se o tipo mudar, a prévia é descartada e gerada novamente.
      */
     public FileResponse update(Long id, FileRequest request) {
         File file = serviceHelper.findFileOrThrow(id);
         Discipline discipline = serviceHelper.findDisciplineOrThrow(request.getDisciplineId());
+        Long previousDisciplineId = file.getDiscipline().getId();
+        Long previousInstitutionId = file.getInstitution().getId();
+        long previousSize = file.getFileSize();
+        FileType previousType = file.getFileType();
 
         updateFileFields(file, request, discipline);
+        if (previousType != file.getFileType()) {
+            refreshPreview(file);
+        }
 
         File saved = fileRepository.save(file);
+        storageUsageService.fileUpdated(saved, previousDisciplineId, previousInstitutionId, previousSize);
         log.info("Arquivo atualizado: {}", saved.getId());
 
         return toResponse(saved);
     }
 
+    /**
+     * Content-Type deduzido da extensão do nome do arquivo.
+     */
+    private String contentTypeOf(File file) {
+        return MediaTypeFactory.getMediaType(file.getFileName())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    /**
+     * Descarta a prévia do arquivo e agenda nova geração quando o tipo tem prévia.
+     */
+    private void refreshPreview(File file) {
+        boolean pending = file.getFilePath() != null && FilePreviewService.supports(file.getFileType());
+        PreviewStatus status = pending ? PreviewStatus.PENDING : PreviewStatus.NOT_AVAILABLE;
+        fileRepository.resetPreview(file.getId(), status);
+        file.setPreviewStatus(status);
+        file.setThumbnailPath(null);
+        file.setPreviewText(null);
+        if (pending) {
+            filePreviewService.schedule(file.getId());
+        }
+    }
+
     /**
      * Converte File para FileResponse.
-     * Calcula contadores de favoritos e comentários.
+     * Usa os contadores desnormalizados de favoritos e comentários do próprio arquivo.
      */
     private FileResponse toResponse(File file) {
-        long favoritesCount = favoriteRepository.countByFile(file);
-        long commentsCount = commentRepository.countActiveCommentsByFile(file);
-
         return FileResponse.builder()
                 .id(file.getId())
                 .title(file.getTitle())
                 .fileName(file.getFileName())
                 .fileType(file.getFileType())
                 .fileSize(file.getFileSize())
-                .filePath(file.getFilePath())
+                .contentAvailable(file.getFilePath() != null)
                 .description(file.getDescription())
                 .disciplineId(file.getDiscipline().getId())
                 .disciplineName(file.getDiscipline().getName())
@@ -171,25 +420,111 @@ public class FileService {
                 .uploadedById(file.getUploadedBy().getId())
                 .uploadedByName(file.getUploadedBy().getName())
                 .status(file.getStatus())
-                .downloadCount(file.getDownloadCount())
+                .downloadCount(downloadCountOf(file.getId(), file.getDownloadCount()))
                 .approvedAt(file.getApprovedAt())
                 .version(file.getVersion())
                 .createdAt(file.getCreatedAt())
                 .updatedAt(file.getUpdatedAt())
-                .favoritesCount(favoritesCount)
-                .commentsCount(commentsCount)
+                .favoritesCount(file.getFavoritesCount())
+                .commentsCount(file.getCommentsCount())
+                .previewStatus(file.getPreviewStatus())
+                .thumbnailAvailable(file.getThumbnailPath() != null)
+                .previewText(file.getPreviewText())
                 .build();
     }
 
+    /**
+     * Constrói um novo File com status PENDING a partir do request.
+     */
+    private File buildFile(FileRequest request, Discipline discipline, User uploadedBy) {
+        return File.builder()
+                .title(request.getTitle())
+                .fileName(request.getFileName())
+                .fileType(request.getFileType())
+                .fileSize(request.getFileSize())
+                .description(request.getDescription())
+                .discipline(discipline)
+                .institution(discipline.getInstitution())
+                .uploadedBy(uploadedBy)
+                .status(FileStatus.PENDING)
+                .version(request.getVersion())
+                .build();
+    }
+
+    /**
+     * Monta a página a partir de size + 1 linhas: a linha extra apenas indica que existe próxima página.
+     */
+    private CursorPageResponse<FileResponse> toCursorPage(List<FileResponse> rows, int size,
+                                                          Long total, TotalCountMode countMode) {
+        boolean hasNext = rows.size() > size;
+        List<FileResponse> content = withPendingDownloads(hasNext ? rows.subList(0, size) : rows);
+        FileResponse last = content.isEmpty() ? null : content.get(content.size() - 1);
+
+        return CursorPageResponse.<FileResponse>builder()
+                .content(content)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .totalElements(total)
+                .totalEstimated(countMode == TotalCountMode.ESTIMATED)
+                .build();
+    }
+
+    /**
+     * Busca os arquivos de um ranking em consulta única, mantendo a ordem e descartando os não aprovados.
+     */
+    private List<FileResponse> findRanked(List<Long> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, FileResponse> byId = fileRepository.findApprovedFileResponsesByIds(rankedIds).stream()
+                .collect(Collectors.toMap(FileResponse::getId, Function.identity()));
+        List<FileResponse> ranked = rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return withPendingDownloads(ranked);
+    }
+
+    /**
+     * Limita o tamanho da página entre 1 e MAX_PAGE_SIZE.
+     */
+    private int normalizePageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Soma os downloads pendentes em memória às respostas, quando habilitado.
+     * Usado também pelas listagens de outros services que projetam FileResponse.
+     */
+    List<FileResponse> withPendingDownloads(List<FileResponse> responses) {
+        if (includePendingDownloads) {
+            responses.forEach(response ->
+                    response.setDownloadCount(downloadCountOf(response.getId(), response.getDownloadCount())));
+        }
+        return responses;
+    }
+
+    /**
+     * Retorna o contador de downloads persistido, somado aos pendentes em memória quando habilitado.
+     */
+    private Integer downloadCountOf(Long fileId, Integer persisted) {
+        if (!includePendingDownloads) {
+            return persisted;
+        }
+        return persisted + (int) downloadCounterService.pendingFor(fileId);
+    }
+
     /**
      * Atualiza os campos do arquivo com os valores do request.
+     * O caminho no storage é definido apenas pelo servidor; arquivos com conteúdo mantêm o tamanho real gravado.
      */
     private void updateFileFields(File file, FileRequest request, Discipline discipline) {
         file.setTitle(request.getTitle());
         file.setFileName(request.getFileName());
         file.setFileType(request.getFileType());
-        file.setFileSize(request.getFileSize());
-        file.setFilePath(request.getFilePath());
+        if (file.getContentBlob() == null) {
+            file.setFileSize(request.getFileSize());
+        }
         file.setDescription(request.getDescription());
         file.setDiscipline(discipline);
         file.setInstitution(discipline.getInstitution());
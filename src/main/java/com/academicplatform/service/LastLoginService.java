@@ -0,0 +1,112 @@
+package com.academicplatform.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro do último login com escrita postergada (write-behind).
+ * Mantém em memória apenas o login mais recente de cada usuário e descarrega periodicamente
+ * um UPDATE por usuário em um único batch JDBC, tirando a escrita do caminho do login.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginService {
+
+    private static final String FLUSH_SQL =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Registra um login do usuário. Não acessa o banco.
+     */
+    public void record(Long userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt, LastLoginService::latest);
+    }
+
+    /**
+     * Retorna o login do usuário ainda não gravado no banco, ou null.
+     */
+    public LocalDateTime pendingFor(Long userId) {
+        return pending.get(userId);
+    }
+
+    /**
+     * Retorna o mais recente entre o último login gravado e o pendente em memória.
+     */
+    public LocalDateTime resolve(Long userId, LocalDateTime stored) {
+        LocalDateTime buffered = pending.get(userId);
+        return buffered == null ? stored : latest(stored, buffered);
+    }
+
+    /**
+     * Quantidade de usuários com login aguardando flush.
+     */
+    public int getPendingUsers() {
+        return pending.size();
+    }
+
+    /**
+     * Grava os logins acumulados no banco em um único batch.
+     * Executado em intervalo fixo e no desligamento da aplicação. O UPDATE nunca retrocede a data;
+     * em caso de falha, os valores voltam para a memória e são regravados no próximo ciclo.
+     */
+    @Scheduled(fixedDelayString = "${app.users.last-login.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        List<Long> userIds = new ArrayList<>();
+        List<LocalDateTime> logins = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+
+        pending.forEach((userId, loginAt) -> {
+            // Remove só se o valor não mudou; um login mais novo permanece para o próximo ciclo.
+            if (pending.remove(userId, loginAt)) {
+                Timestamp timestamp = Timestamp.valueOf(loginAt);
+                userIds.add(userId);
+                logins.add(loginAt);
+                batch.add(new Object[]{timestamp, userId, timestamp});
+            }
+        });
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            log.debug("Flush de últimos logins: {} usuários", batch.size());
+        } catch (RuntimeException e) {
+            for (int i = 0; i < userIds.size(); i++) {
+                record(userIds.get(i), logins.get(i));
+            }
+            log.error("Falha ao gravar últimos logins, {} usuários serão regravados", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b.isAfter(a) ? b : a;
+    }
+}
@@ -0,0 +1,210 @@
+package com.academicplatform.service;
+
+import com.academicplatform.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hash e verificação de senhas em um pool de threads dedicado, com fila limitada.
+ * Picos de login (BCrypt é caro por design) ocupam apenas este pool, não as threads do Tomcat;
+ * com a fila cheia ou a espera excedida, a requisição é recusada imediatamente com ServiceBusyException.
+ * Também identifica hashes gravados com custo diferente do configurado, para rehash no login.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class PasswordHashingService implements MeterBinder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int targetCost;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${app.security.hashing.threads:0}") int threads,
+                                  @Value("${app.security.hashing.queue-capacity:200}") int queueCapacity,
+                                  @Value("${app.security.hashing.timeout-ms:5000}") long timeoutMs) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+        this.targetCost = costOf(passwordEncoder.encode("cost-probe"));
+    }
+
+    /**
+     * Verifica a senha contra o hash armazenado, no pool de hashing.
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Gera o hash da senha, no pool de hashing.
+     */
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Indica se o hash foi gerado com custo diferente do configurado no PasswordEncoder.
+     * Hashes em formato não reconhecido não são considerados.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && targetCost > 0 && cost != targetCost;
+    }
+
+    /**
+     * Custo configurado para novos hashes (0 se o encoder não for BCrypt).
+     */
+    public int getTargetCost() {
+        return targetCost;
+    }
+
+    /**
+     * Operações aguardando na fila do pool.
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Operações em execução no momento.
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Operações recusadas por fila cheia ou espera excedida.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Operações de hash concluídas.
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Latência média de uma operação de hash, em milissegundos (sem o tempo de fila).
+     */
+    public double getAverageHashMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : totalHashNanos.sum() / (double) count / 1_000_000;
+    }
+
+    /**
+     * Maior latência de uma operação de hash, em milissegundos.
+     */
+    public double getMaxHashMillis() {
+        return maxHashNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Publica a ocupação do pool, as operações concluídas e recusadas e as latências de hash.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.security.hashing.queue.depth", this, PasswordHashingService::getQueueDepth)
+                .register(registry);
+        Gauge.builder("app.security.hashing.active", this, PasswordHashingService::getActiveCount)
+                .register(registry);
+        FunctionCounter.builder("app.security.hashing.completed", this, PasswordHashingService::getCompletedCount)
+                .register(registry);
+        FunctionCounter.builder("app.security.hashing.rejected", this, PasswordHashingService::getRejectedCount)
+                .register(registry);
+        Gauge.builder("app.security.hashing.duration.avg", this, PasswordHashingService::getAverageHashMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("app.security.hashing.duration.max", this, PasswordHashingService::getMaxHashMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("app.security.hashing.cost", this, PasswordHashingService::getTargetCost)
+                .register(registry);
+    }
+
+    private <T> T run(Callable<T> operation) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(operation));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Pool de hashing saturado ({} na fila); requisição recusada", executor.getQueue().size());
+            throw new ServiceBusyException("Servidor ocupado, tente novamente em instantes");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            log.warn("Hash de senha excedeu {} ms aguardando o pool; requisição recusada", timeoutMs);
+            throw new ServiceBusyException("Servidor ocupado, tente novamente em instantes");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Operação interrompida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Falha ao processar senha", e.getCause());
+        }
+    }
+
+    private <T> T timed(Callable<T> operation) throws Exception {
+        long start = System.nanoTime();
+        T result = operation.call();
+        long elapsed = System.nanoTime() - start;
+        completed.increment();
+        totalHashNanos.add(elapsed);
+        maxHashNanos.accumulateAndGet(elapsed, Math::max);
+        return result;
+    }
+
+    private static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return 0;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,154 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.request.PasswordResetConfirmRequest;
+import com.academicplatform.dto.request.PasswordResetRequest;
+import com.academicplatform.entity.PasswordResetToken;
+import com.academicplatform.entity.User;
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.repository.PasswordResetTokenRepository;
+import com.academicplatform.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Recuperação de senha por token de uso único.
+ * O token em claro é gerado aleatoriamente e entregue ao usuário; o banco guarda apenas o hash SHA-256,
+ * localizado pelo índice único na confirmação. Tokens expirados são removidos em lotes por um job agendado.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class PasswordResetService {
+
+    private static final String INVALID_TOKEN = "Token inválido ou expirado";
+    private static final int TOKEN_BYTES = 32;
+
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final RateLimitService rateLimitService;
+    private final Duration tokenTtl;
+    private final int sweepBatchSize;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordResetService(PasswordResetTokenRepository passwordResetTokenRepository,
+                                UserRepository userRepository,
+                                PasswordHashingService passwordHashingService,
+                                RateLimitService rateLimitService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.security.password-reset.token-ttl-minutes:30}") long tokenTtlMinutes,
+                                @Value("${app.security.password-reset.sweep-batch-size:1000}") int sweepBatchSize) {
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.rateLimitService = rateLimitService;
+        this.tokenTtl = Duration.ofMinutes(tokenTtlMinutes);
+        this.sweepBatchSize = sweepBatchSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Gera um token de recuperação para o email, substituindo tokens anteriores do usuário.
+     * Retorna o token em claro para envio por email; vazio se não houver usuário ativo com o email.
+     * O chamador não deve expor o token nem a ausência do usuário na resposta HTTP.
+     * O rate limit é verificado antes de abrir a transação, para não manter o bucket bloqueado até o commit.
+     */
+    public Optional<String> requestReset(PasswordResetRequest request, String clientIp) {
+        rateLimitService.checkPasswordReset(request.getEmail(), clientIp);
+        return transactionTemplate.execute(status -> issueToken(request));
+    }
+
+    private Optional<String> issueToken(PasswordResetRequest request) {
+        // Lock na linha do usuário: solicitações concorrentes substituem o token uma de cada vez,
+        // sem deixar dois tokens válidos para o mesmo usuário.
+        Optional<User> user = userRepository.findByEmailForUpdate(request.getEmail())
+                .filter(User::getActive);
+        if (user.isEmpty()) {
+            log.debug("Recuperação de senha solicitada para email sem usuário ativo");
+            return Optional.empty();
+        }
+
+        String token = generateToken();
+        passwordResetTokenRepository.deleteByUserId(user.get().getId());
+        passwordResetTokenRepository.save(PasswordResetToken.builder()
+                .user(user.get())
+                .tokenHash(hash(token))
+                .expiresAt(LocalDateTime.now().plus(tokenTtl))
+                .build());
+        log.info("Token de recuperação de senha gerado para usuário {}", user.get().getId());
+        return Optional.of(token);
+    }
+
+    /**
+     * Redefine a senha com o token recebido. O token é consumido junto com a troca da senha,
+     * em um único statement, e não pode ser reutilizado.
+     * Não é transacional: o hash da nova senha roda no pool de hashing sem manter conexão com o banco.
+     */
+    public void confirmReset(PasswordResetConfirmRequest request, String clientIp) {
+        rateLimitService.checkPasswordResetConfirm(clientIp);
+
+        PasswordResetToken token = passwordResetTokenRepository.findByTokenHash(hash(request.getToken()))
+                .filter(candidate -> !candidate.isExpired())
+                .orElseThrow(() -> new BusinessException(INVALID_TOKEN));
+
+        String passwordHash = passwordHashingService.encode(request.getNewPassword());
+        if (passwordResetTokenRepository.consumeAndSetPassword(token.getId(), passwordHash, LocalDateTime.now()) == 0) {
+            throw new BusinessException(INVALID_TOKEN);
+        }
+        log.info("Senha redefinida via token de recuperação {}", token.getId());
+    }
+
+    /**
+     * Remove tokens expirados em lotes limitados, cada lote em sua própria transação.
+     * Retorna a quantidade removida.
+     */
+    @Scheduled(fixedDelayString = "${app.security.password-reset.sweep-interval-ms:3600000}")
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = passwordResetTokenRepository.deleteExpiredBatch(now, sweepBatchSize);
+            total += deleted;
+        } while (deleted == sweepBatchSize);
+
+        if (total > 0) {
+            log.info("Tokens de recuperação de senha expirados removidos: {}", total);
+        }
+        return total;
+    }
+
+    private String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Hash SHA-256 do token em hexadecimal, como armazenado em token_hash.
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
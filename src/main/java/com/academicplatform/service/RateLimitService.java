@@ -0,0 +1,107 @@
+package com.academicplatform.service;
+
+import com.academicplatform.exception.RateLimitExceededException;
+import com.academicplatform.security.RateLimitStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limiting dos fluxos de login e recuperação de senha, por email e por IP do cliente.
+ * Deve ser chamado antes de qualquer acesso ao banco e fora de transações, para que tráfego de
+ * credential stuffing seja recusado sem gerar consultas e o bucket não fique bloqueado até o commit. Os buckets ficam no RateLimitStore configurado.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class RateLimitService {
+
+    private static final String TOO_MANY_ATTEMPTS = "Muitas tentativas. Tente novamente mais tarde";
+
+    private final RateLimitStore store;
+    private final Rule loginByEmail;
+    private final Rule loginByIp;
+    private final Rule passwordResetByEmail;
+    private final Rule passwordResetByIp;
+    private final Rule passwordResetConfirmByIp;
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimitService(RateLimitStore store,
+                            @Value("${app.security.rate-limit.login.email.capacity:5}") int loginEmailCapacity,
+                            @Value("${app.security.rate-limit.login.email.refill-seconds:300}") long loginEmailRefill,
+                            @Value("${app.security.rate-limit.login.ip.capacity:30}") int loginIpCapacity,
+                            @Value("${app.security.rate-limit.login.ip.refill-seconds:60}") long loginIpRefill,
+                            @Value("${app.security.rate-limit.password-reset.email.capacity:3}") int resetEmailCapacity,
+                            @Value("${app.security.rate-limit.password-reset.email.refill-seconds:3600}") long resetEmailRefill,
+                            @Value("${app.security.rate-limit.password-reset.ip.capacity:10}") int resetIpCapacity,
+                            @Value("${app.security.rate-limit.password-reset.ip.refill-seconds:3600}") long resetIpRefill,
+                            @Value("${app.security.rate-limit.password-reset-confirm.ip.capacity:10}") int confirmIpCapacity,
+                            @Value("${app.security.rate-limit.password-reset-confirm.ip.refill-seconds:3600}") long confirmIpRefill) {
+        this.store = store;
+        this.loginByEmail = new Rule("login:email:", loginEmailCapacity, Duration.ofSeconds(loginEmailRefill));
+        this.loginByIp = new Rule("login:ip:", loginIpCapacity, Duration.ofSeconds(loginIpRefill));
+        this.passwordResetByEmail = new Rule("reset:email:", resetEmailCapacity, Duration.ofSeconds(resetEmailRefill));
+        this.passwordResetByIp = new Rule("reset:ip:", resetIpCapacity, Duration.ofSeconds(resetIpRefill));
+        this.passwordResetConfirmByIp = new Rule("reset-confirm:ip:", confirmIpCapacity, Duration.ofSeconds(confirmIpRefill));
+    }
+
+    /**
+     * Consome uma tentativa de login para o email e o IP. Lança RateLimitExceededException se algum limite estourar.
+     */
+    public void checkLogin(String email, String clientIp) {
+        check(loginByIp, clientIp);
+        check(loginByEmail, normalizeEmail(email));
+    }
+
+    /**
+     * Consome uma tentativa de recuperação de senha para o email e o IP.
+     * Lança RateLimitExceededException se algum limite estourar.
+     */
+    public void checkPasswordReset(String email, String clientIp) {
+        check(passwordResetByIp, clientIp);
+        check(passwordResetByEmail, normalizeEmail(email));
+    }
+
+    /**
+     * Consome uma tentativa de confirmação de recuperação de senha para o IP, em bucket próprio:
+     * confirmações não gastam as tentativas de solicitação do mesmo IP.
+     * Lança RateLimitExceededException se o limite estourar.
+     */
+    public void checkPasswordResetConfirm(String clientIp) {
+        check(passwordResetConfirmByIp, clientIp);
+    }
+
+    /**
+     * Tentativas recusadas desde a inicialização.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private void check(Rule rule, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (!store.tryConsume(rule.prefix() + value, rule.capacity(), rule.refillPeriod())) {
+            rejected.increment();
+            // Sem o email/IP no log: sob credential stuffing cada tentativa recusada geraria uma linha com dado pessoal.
+            log.debug("Rate limit excedido: {}", rule.prefix());
+            throw new RateLimitExceededException(TOO_MANY_ATTEMPTS);
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Limite de um fluxo: prefixo da chave, capacidade do bucket e tempo para reabastecê-lo por completo.
+     */
+    private record Rule(String prefix, int capacity, Duration refillPeriod) {
+    }
+}
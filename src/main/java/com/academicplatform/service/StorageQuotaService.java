@@ -0,0 +1,192 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.Institution;
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.repository.InstitutionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Controle de cota de armazenamento por instituição.
+ * Mantém em memória o uso de cada instituição (persistido + reservas em andamento), carregado
+ * sob demanda do agregado storage_used_bytes, e reserva bytes atomicamente antes do upload.
+ * A reserva é confirmada no commit da transação ou liberada no rollback.
+ * As reservas ainda não confirmadas são contadas à parte, para sobreviver a recargas do uso persistido.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StorageQuotaService {
+
+    private static final long BYTES_PER_GB = 1024L * 1024L * 1024L;
+
+    private final InstitutionRepository institutionRepository;
+
+    private final Map<Long, Usage> usage = new ConcurrentHashMap<>();
+
+    /**
+     * Reserva bytes na cota da instituição, sem consultar a tabela de arquivos.
+     * Lança BusinessException se a reserva ultrapassar o limite do plano (maxStorageGB).
+     * Dentro de uma transação, a reserva é liberada automaticamente em caso de rollback.
+     */
+    public QuotaReservation reserve(Institution institution, long bytes) {
+        long limit = institution.getMaxStorageGB() * BYTES_PER_GB;
+        Usage used = usageOf(institution.getId());
+
+        long current;
+        do {
+            current = used.total.get();
+            if (current + bytes > limit) {
+                throw new BusinessException("Limite de armazenamento da instituição excedido");
+            }
+        } while (!used.total.compareAndSet(current, current + bytes));
+        used.pending.addAndGet(bytes);
+
+        QuotaReservation reservation = new QuotaReservation(institution.getId(), bytes, used);
+        bindToTransaction(reservation);
+        log.debug("Cota reservada: instituição {}, {} bytes", institution.getId(), bytes);
+        return reservation;
+    }
+
+    /**
+     * Verifica, sem reservar, se a instituição comporta mais bytes.
+     * Usado para recusar cedo uploads longos que falhariam na reserva final.
+     */
+    public void checkAvailable(Institution institution, long bytes) {
+        long limit = institution.getMaxStorageGB() * BYTES_PER_GB;
+        if (usageOf(institution.getId()).total.get() + bytes > limit) {
+            throw new BusinessException("Limite de armazenamento da instituição excedido");
+        }
+    }
+
+    /**
+     * Ajusta o uso em memória após o commit de uma mudança que alterou o armazenamento
+     * fora do fluxo de reserva (ex: rejeição ou alteração de tamanho).
+     */
+    public void adjustAfterCommit(Long institutionId, long bytes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            adjust(institutionId, bytes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                adjust(institutionId, bytes);
+            }
+        });
+    }
+
+    /**
+     * Recarrega do banco o uso persistido da instituição, mantendo as reservas em andamento.
+     * Usado após reconciliações para incorporar mudanças feitas por outros nós.
+     */
+    public void invalidate(Long institutionId) {
+        Usage used = usage.get(institutionId);
+        if (used != null) {
+            long persisted = institutionRepository.findStorageUsedBytesById(institutionId).orElse(0L);
+            used.total.set(persisted + used.pending.get());
+        }
+    }
+
+    /**
+     * Uso atual em memória da instituição (persistido + reservas em andamento), em bytes.
+     */
+    public long getUsedBytes(Long institutionId) {
+        return usageOf(institutionId).total.get();
+    }
+
+    private void adjust(Long institutionId, long bytes) {
+        Usage used = usage.get(institutionId);
+        if (used != null) {
+            used.total.addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Retorna o uso da instituição, carregando o agregado persistido no primeiro acesso.
+     */
+    private Usage usageOf(Long institutionId) {
+        return usage.computeIfAbsent(institutionId, id ->
+                new Usage(institutionRepository.findStorageUsedBytesById(id).orElse(0L)));
+    }
+
+    /**
+     * Confirma a reserva no commit e a libera no rollback da transação corrente.
+     */
+    private void bindToTransaction(QuotaReservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    reservation.commit();
+                } else {
+                    reservation.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Uso em memória de uma instituição: total (persistido + reservas) e a parte ainda em reserva.
+     */
+    private static final class Usage {
+
+        private final AtomicLong total;
+        private final AtomicLong pending = new AtomicLong();
+
+        private Usage(long persisted) {
+            this.total = new AtomicLong(persisted);
+        }
+    }
+
+    /**
+     * Reserva de bytes na cota de uma instituição.
+     * Após o commit os bytes passam a fazer parte do uso persistido; release devolve os bytes à cota.
+     */
+    public static class QuotaReservation {
+
+        private final Long institutionId;
+        private final long bytes;
+        private final Usage used;
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+
+        QuotaReservation(Long institutionId, long bytes, Usage used) {
+            this.institutionId = institutionId;
+            this.bytes = bytes;
+            this.used = used;
+        }
+
+        /**
+         * Confirma a reserva. Os bytes permanecem contabilizados.
+         */
+        public void commit() {
+            if (completed.compareAndSet(false, true)) {
+                used.pending.addAndGet(-bytes);
+            }
+        }
+
+        /**
+         * Libera a reserva, devolvendo os bytes à cota. Sem efeito se já confirmada ou liberada.
+         */
+        public void release() {
+            if (completed.compareAndSet(false, true)) {
+                used.pending.addAndGet(-bytes);
+                used.total.addAndGet(-bytes);
+                log.debug("Reserva de cota liberada: instituição {}, {} bytes", institutionId, bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.academicplatform.service;
+
+import com.academicplatform.repository.DisciplineRepository;
+import com.academicplatform.repository.InstitutionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Job de reconciliação dos agregados de armazenamento por disciplina e instituição.
+ * Recalcula os agregados a partir da tabela de arquivos, por instituição e em paralelo.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class StorageUsageReconciliationService {
+
+    private final DisciplineRepository disciplineRepository;
+    private final InstitutionRepository institutionRepository;
+    private final StorageQuotaService storageQuotaService;
+    private final ExecutorService executor;
+
+    public StorageUsageReconciliationService(DisciplineRepository disciplineRepository,
+                                             InstitutionRepository institutionRepository,
+                                             StorageQuotaService storageQuotaService,
+                                             @Value("${app.reconciliation.parallelism:4}") int parallelism) {
+        this.disciplineRepository = disciplineRepository;
+        this.institutionRepository = institutionRepository;
+        this.storageQuotaService = storageQuotaService;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    /**
+     * Reconcilia os agregados de todas as instituições.
+     * Retorna o total de disciplinas e instituições cujos agregados estavam divergentes.
+     */
+    @Scheduled(cron = "${app.reconciliation.storage-usage.cron:0 30 3 * * *}")
+    public long reconcileAll() {
+        List<CompletableFuture<Integer>> batches = institutionRepository.findAllIds().stream()
+                .map(institutionId -> CompletableFuture.supplyAsync(() -> reconcileInstitution(institutionId), executor))
+                .toList();
+
+        long totalDrift = batches.stream()
+                .mapToLong(CompletableFuture::join)
+                .sum();
+
+        log.info("Reconciliação de armazenamento concluída: {} instituições, {} agregados corrigidos",
+                batches.size(), totalDrift);
+        return totalDrift;
+    }
+
+    /**
+     * Reconcilia os agregados da instituição e de suas disciplinas.
+     * A cota em memória da instituição é descartada para ser recarregada do valor reconciliado.
+     * Retorna quantos agregados foram corrigidos.
+     */
+    public int reconcileInstitution(Long institutionId) {
+        int drift = disciplineRepository.reconcileStorageUsageByInstitution(institutionId)
+                + institutionRepository.reconcileStorageUsage(institutionId);
+        storageQuotaService.invalidate(institutionId);
+        if (drift > 0) {
+            log.warn("Drift de armazenamento na instituição {}: {} agregados corrigidos", institutionId, drift);
+        }
+        return drift;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
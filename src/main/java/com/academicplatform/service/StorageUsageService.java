@@ -0,0 +1,110 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.File;
+import com.academicplatform.enums.FileStatus;
+import com.academicplatform.repository.DisciplineRepository;
+import com.academicplatform.repository.InstitutionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Mantém os agregados de armazenamento (bytes e quantidade de arquivos) por disciplina e instituição.
+ * Aplica deltas por UPDATE atômico a cada mudança de arquivo; arquivos rejeitados não contam.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class StorageUsageService {
+
+    private final DisciplineRepository disciplineRepository;
+    private final InstitutionRepository institutionRepository;
+    private final StorageQuotaService storageQuotaService;
+
+    /**
+     * Contabiliza um arquivo recém-criado.
+     * Os bytes já estão contabilizados na cota em memória pela reserva feita no upload.
+     */
+    public void fileCreated(File file) {
+        if (counts(file.getStatus())) {
+            apply(file.getDiscipline().getId(), file.getInstitution().getId(), file.getFileSize(), 1);
+        }
+    }
+
+    /**
+     * Ajusta os agregados após a atualização de um arquivo que pode ter mudado de tamanho ou de disciplina.
+     * Aumentos de uso são reservados na cota da instituição e recusados se ultrapassarem o limite.
+     */
+    public void fileUpdated(File file, Long previousDisciplineId, Long previousInstitutionId, long previousSize) {
+        if (!counts(file.getStatus())) {
+            return;
+        }
+
+        Long institutionId = file.getInstitution().getId();
+        if (institutionId.equals(previousInstitutionId)) {
+            long sizeDelta = file.getFileSize() - previousSize;
+            if (sizeDelta > 0) {
+                storageQuotaService.reserve(file.getInstitution(), sizeDelta);
+            } else if (sizeDelta < 0) {
+                storageQuotaService.adjustAfterCommit(institutionId, sizeDelta);
+            }
+        } else {
+            storageQuotaService.reserve(file.getInstitution(), file.getFileSize());
+            storageQuotaService.adjustAfterCommit(previousInstitutionId, -previousSize);
+        }
+
+        Long disciplineId = file.getDiscipline().getId();
+        if (disciplineId.equals(previousDisciplineId)) {
+            long sizeDelta = file.getFileSize() - previousSize;
+            if (sizeDelta != 0) {
+                apply(disciplineId, institutionId, sizeDelta, 0);
+            }
+            return;
+        }
+
+        apply(previousDisciplineId, previousInstitutionId, -previousSize, -1);
+        apply(disciplineId, institutionId, file.getFileSize(), 1);
+    }
+
+    /**
+     * Ajusta os agregados quando o status do arquivo muda (ex: rejeição deixa de contar).
+     * Um arquivo que volta a contar (ex: rejeitado → aprovado) tem os bytes reservados na cota
+     * e a mudança é recusada se ultrapassar o limite.
+     */
+    public void statusChanged(File file, FileStatus previousStatus) {
+        boolean countedBefore = counts(previousStatus);
+        boolean countedNow = counts(file.getStatus());
+        if (countedBefore == countedNow) {
+            return;
+        }
+
+        int sign = countedNow ? 1 : -1;
+        if (countedNow) {
+            storageQuotaService.reserve(file.getInstitution(), file.getFileSize());
+        } else {
+            storageQuotaService.adjustAfterCommit(file.getInstitution().getId(), -file.getFileSize());
+        }
+        apply(file.getDiscipline().getId(), file.getInstitution().getId(), sign * file.getFileSize(), sign);
+    }
+
+    /**
+     * Aplica os deltas na disciplina e na instituição.
+     */
+    private void apply(Long disciplineId, Long institutionId, long bytes, long files) {
+        disciplineRepository.addStorageUsage(disciplineId, bytes, files);
+        institutionRepository.addStorageUsage(institutionId, bytes, files);
+        log.debug("Uso de armazenamento ajustado: disciplina {}, instituição {}, {} bytes, {} arquivos",
+                disciplineId, institutionId, bytes, files);
+    }
+
+    /**
+     * Indica se arquivos com o status contam no armazenamento usado.
+     */
+    private boolean counts(FileStatus status) {
+        return status != FileStatus.REJECTED;
+    }
+}
@@ -0,0 +1,248 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.File;
+import com.academicplatform.enums.FileStatus;
+import com.academicplatform.repository.FileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranking de arquivos em alta (trending) por disciplina e por instituição.
+ * Cada download ou favorito de um arquivo aprovado soma um peso que decai exponencialmente com o tempo
+ * (meia-vida configurável). Usa decaimento "forward": o peso é gravado já escalado por e^(λ·(t - t0)),
+ * então pontuações antigas não precisam ser atualizadas e continuam comparáveis.
+ * Cada escopo guarda um número limitado de candidatos; um snapshot periódico publica o top-K ordenado,
+ * servido em O(K). A montagem das respostas fica com o FileService.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class TrendingService {
+
+    /**
+     * Expoente a partir do qual o instante de referência (t0) é movido, evitando overflow dos pesos.
+     */
+    private static final double MAX_EXPONENT = 500;
+
+    private final FileRepository fileRepository;
+    private final double decayRatePerMs;
+    private final double downloadWeight;
+    private final double favoriteWeight;
+    private final int topK;
+    private final int candidatesPerScope;
+    private final Clock clock;
+
+    private final Map<Long, ScopeRanking> disciplineRankings = new ConcurrentHashMap<>();
+    private final Map<Long, ScopeRanking> institutionRankings = new ConcurrentHashMap<>();
+    private final ReadWriteLock landmarkLock = new ReentrantReadWriteLock();
+    private volatile long landmarkMillis;
+
+    private volatile Map<Long, List<Long>> disciplineSnapshot = Map.of();
+    private volatile Map<Long, List<Long>> institutionSnapshot = Map.of();
+
+    @Autowired
+    public TrendingService(FileRepository fileRepository,
+                           @Value("${app.trending.half-life-hours:24}") double halfLifeHours,
+                           @Value("${app.trending.download-weight:1.0}") double downloadWeight,
+                           @Value("${app.trending.favorite-weight:3.0}") double favoriteWeight,
+                           @Value("${app.trending.top-k:20}") int topK,
+                           @Value("${app.trending.candidates-per-scope:100}") int candidatesPerScope) {
+        this(fileRepository, halfLifeHours, downloadWeight, favoriteWeight, topK, candidatesPerScope, Clock.systemUTC());
+    }
+
+    TrendingService(FileRepository fileRepository, double halfLifeHours, double downloadWeight, double favoriteWeight,
+                    int topK, int candidatesPerScope, Clock clock) {
+        this.fileRepository = fileRepository;
+        this.decayRatePerMs = Math.log(2) / (halfLifeHours * 3_600_000);
+        this.downloadWeight = downloadWeight;
+        this.favoriteWeight = favoriteWeight;
+        this.topK = topK;
+        this.candidatesPerScope = Math.max(candidatesPerScope, topK);
+        this.clock = clock;
+        this.landmarkMillis = clock.millis();
+    }
+
+    /**
+     * Registra um download do arquivo, se ele estiver aprovado.
+     */
+    public void recordDownload(File file) {
+        if (file.getStatus() == FileStatus.APPROVED) {
+            record(file.getId(), file.getDiscipline().getId(), file.getInstitution().getId(), downloadWeight);
+        }
+    }
+
+    /**
+     * Registra favoritos adicionados, após o commit da transação corrente.
+     * Resolve disciplina e instituição dos arquivos aprovados em uma única consulta.
+     */
+    public void recordFavorites(Collection<Long> fileIds) {
+        afterCommit(() -> fileRepository.findApprovedScopesByIds(fileIds).forEach(row ->
+                record((Long) row[0], (Long) row[1], (Long) row[2], favoriteWeight)));
+    }
+
+    /**
+     * Remove o arquivo dos candidatos da disciplina e da instituição, após o commit da transação corrente.
+     * Usado quando o arquivo deixa de estar aprovado, para não ocupar vagas do ranking; a pontuação acumulada
+     * é descartada.
+     */
+    public void remove(Long fileId, Long disciplineId, Long institutionId) {
+        afterCommit(() -> {
+            ScopeRanking discipline = disciplineRankings.get(disciplineId);
+            if (discipline != null) {
+                discipline.remove(fileId);
+            }
+            ScopeRanking institution = institutionRankings.get(institutionId);
+            if (institution != null) {
+                institution.remove(fileId);
+            }
+        });
+    }
+
+    /**
+     * IDs dos arquivos em alta da disciplina, do mais para o menos popular, segundo o último snapshot.
+     */
+    public List<Long> topByDiscipline(Long disciplineId, int limit) {
+        return head(disciplineSnapshot.getOrDefault(disciplineId, List.of()), limit);
+    }
+
+    /**
+     * IDs dos arquivos em alta da instituição, do mais para o menos popular, segundo o último snapshot.
+     */
+    public List<Long> topByInstitution(Long institutionId, int limit) {
+        return head(institutionSnapshot.getOrDefault(institutionId, List.of()), limit);
+    }
+
+    /**
+     * Publica o top-K de cada escopo. Também move o instante de referência quando necessário.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        rebaseIfNeeded();
+        disciplineSnapshot = snapshotOf(disciplineRankings);
+        institutionSnapshot = snapshotOf(institutionRankings);
+        log.debug("Snapshot de trending: {} disciplinas, {} instituições",
+                disciplineSnapshot.size(), institutionSnapshot.size());
+    }
+
+    private void record(Long fileId, Long disciplineId, Long institutionId, double weight) {
+        landmarkLock.readLock().lock();
+        try {
+            double scaled = weight * Math.exp(decayRatePerMs * (clock.millis() - landmarkMillis));
+            rankingOf(disciplineRankings, disciplineId).add(fileId, scaled);
+            rankingOf(institutionRankings, institutionId).add(fileId, scaled);
+        } finally {
+            landmarkLock.readLock().unlock();
+        }
+    }
+
+    private ScopeRanking rankingOf(Map<Long, ScopeRanking> rankings, Long scopeId) {
+        return rankings.computeIfAbsent(scopeId, id -> new ScopeRanking(candidatesPerScope));
+    }
+
+    private Map<Long, List<Long>> snapshotOf(Map<Long, ScopeRanking> rankings) {
+        Map<Long, List<Long>> snapshot = new HashMap<>();
+        rankings.forEach((scopeId, ranking) -> snapshot.put(scopeId, ranking.top(topK)));
+        return Map.copyOf(snapshot);
+    }
+
+    /**
+     * Reescala todas as pontuações para um novo instante de referência quando o expoente fica grande.
+     */
+    private void rebaseIfNeeded() {
+        long now = clock.millis();
+        if (decayRatePerMs * (now - landmarkMillis) < MAX_EXPONENT) {
+            return;
+        }
+        landmarkLock.writeLock().lock();
+        try {
+            double factor = Math.exp(-decayRatePerMs * (now - landmarkMillis));
+            disciplineRankings.values().forEach(ranking -> ranking.scale(factor));
+            institutionRankings.values().forEach(ranking -> ranking.scale(factor));
+            landmarkMillis = now;
+            log.info("Instante de referência do trending atualizado");
+        } finally {
+            landmarkLock.writeLock().unlock();
+        }
+    }
+
+    private List<Long> head(List<Long> ranked, int limit) {
+        return ranked.subList(0, Math.min(Math.max(limit, 0), ranked.size()));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Candidatos de um escopo com pontuação acumulada. Ao atingir a capacidade, o candidato de menor
+     * pontuação dá lugar ao novo evento se este pontuar mais.
+     */
+    private static final class ScopeRanking {
+
+        private final int capacity;
+        private final Map<Long, Double> scores = new HashMap<>();
+
+        ScopeRanking(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void add(Long fileId, double score) {
+            Double current = scores.get(fileId);
+            if (current != null) {
+                scores.put(fileId, current + score);
+                return;
+            }
+            if (scores.size() >= capacity) {
+                Map.Entry<Long, Double> lowest = scores.entrySet().stream()
+                        .min(Map.Entry.comparingByValue())
+                        .orElseThrow();
+                if (lowest.getValue() >= score) {
+                    return;
+                }
+                scores.remove(lowest.getKey());
+            }
+            scores.put(fileId, score);
+        }
+
+        synchronized void remove(Long fileId) {
+            scores.remove(fileId);
+        }
+
+        synchronized void scale(double factor) {
+            scores.replaceAll((fileId, score) -> score * factor);
+        }
+
+        synchronized List<Long> top(int k) {
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()))
+                    .limit(k)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+    }
+}
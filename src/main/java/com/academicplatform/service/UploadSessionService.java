@@ -0,0 +1,341 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.request.FileRequest;
+import com.academicplatform.dto.response.FileResponse;
+import com.academicplatform.dto.response.UploadSessionResponse;
+import com.academicplatform.entity.Discipline;
+import com.academicplatform.entity.UploadSession;
+import com.academicplatform.entity.User;
+import com.academicplatform.enums.UploadSessionStatus;
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.exception.EntityNotFoundException;
+import com.academicplatform.exception.StorageException;
+import com.academicplatform.repository.FileRepository;
+import com.academicplatform.repository.UploadSessionRepository;
+import com.academicplatform.storage.ConcatenatingReadableByteChannel;
+import com.academicplatform.storage.SizeLimitedReadableByteChannel;
+import com.academicplatform.storage.StorageService;
+import com.academicplatform.util.ServiceHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Upload de arquivos grandes em partes, com retomada.
+ * O cliente inicia uma sessão, envia as partes numeradas (em qualquer ordem, inclusive em paralelo),
+ * consulta quais partes já foram recebidas e finaliza, criando o File em status PENDING.
+ * As partes são gravadas diretamente no storage; sessões expiradas são removidas periodicamente.
+ * A finalização marca a sessão como COMPLETING em uma transação curta e concatena as partes
+ * sem manter lock na linha da sessão.
+ *
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+@Transactional
+public class UploadSessionService {
+
+    private static final String CHUNK_PREFIX = "uploads/";
+    private static final int MAX_CHUNKS = 10_000;
+    private static final int PURGE_BATCH_SIZE = 100;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileRepository fileRepository;
+    private final FileService fileService;
+    private final StorageService storageService;
+    private final StorageQuotaService storageQuotaService;
+    private final ServiceHelper serviceHelper;
+    private final int chunkSize;
+    private final Duration sessionTtl;
+    private final Duration completionTimeout;
+    private final TransactionTemplate newTransaction;
+
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository,
+                                FileRepository fileRepository,
+                                FileService fileService,
+                                StorageService storageService,
+                                StorageQuotaService storageQuotaService,
+                                ServiceHelper serviceHelper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.uploads.chunk-size-bytes:8388608}") int chunkSize,
+                                @Value("${app.uploads.session-ttl-hours:24}") long sessionTtlHours,
+                                @Value("${app.uploads.completion-timeout-minutes:30}") long completionTimeoutMinutes) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.fileRepository = fileRepository;
+        this.fileService = fileService;
+        this.storageService = storageService;
+        this.storageQuotaService = storageQuotaService;
+        this.serviceHelper = serviceHelper;
+        this.chunkSize = chunkSize;
+        this.sessionTtl = Duration.ofHours(sessionTtlHours);
+        this.completionTimeout = Duration.ofMinutes(completionTimeoutMinutes);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Inicia uma sessão de upload para o arquivo descrito no request.
+     * Recusa de imediato arquivos que não cabem na cota da instituição.
+     */
+    public UploadSessionResponse initiate(FileRequest request, Long uploadedById) {
+        Discipline discipline = serviceHelper.findDisciplineOrThrow(request.getDisciplineId());
+        User uploadedBy = serviceHelper.findUserOrThrow(uploadedById);
+        storageQuotaService.checkAvailable(discipline.getInstitution(), request.getFileSize());
+
+        long chunks = (request.getFileSize() + chunkSize - 1) / chunkSize;
+        if (chunks > MAX_CHUNKS) {
+            throw new BusinessException("Arquivo excede o número máximo de partes por upload");
+        }
+
+        UploadSession session = UploadSession.builder()
+                .uploadId(UUID.randomUUID().toString())
+                .uploadedBy(uploadedBy)
+                .discipline(discipline)
+                .title(request.getTitle())
+                .fileName(request.getFileName())
+                .fileType(request.getFileType())
+                .description(request.getDescription())
+                .version(request.getVersion())
+                .fileSize(request.getFileSize())
+                .chunkSize(chunkSize)
+                .totalChunks((int) chunks)
+                .status(UploadSessionStatus.ACTIVE)
+                .expiresAt(LocalDateTime.now().plus(sessionTtl))
+                .build();
+
+        UploadSession saved = uploadSessionRepository.save(session);
+        log.info("Sessão de upload iniciada: {} ({} partes)", saved.getUploadId(), saved.getTotalChunks());
+        return toResponse(saved, List.of());
+    }
+
+    /**
+     * Grava uma parte da sessão. Reenviar uma parte substitui a anterior.
+     * A leitura é interrompida assim que a parte excede o tamanho esperado.
+     * Executa sem transação para não manter conexão com o banco durante a transferência.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void uploadChunk(String uploadId, int index, Long userId, ReadableByteChannel content) {
+        UploadSession session = findActiveSession(uploadId, userId);
+        if (index < 0 || index >= session.getTotalChunks()) {
+            throw new BusinessException("Índice de parte inválido: " + index);
+        }
+
+        String key = chunkKey(uploadId, index);
+        long written = storageService.store(key, new SizeLimitedReadableByteChannel(content,
+                session.expectedChunkSize(index), "Parte " + index + " excede o tamanho esperado ("
+                + session.expectedChunkSize(index) + " bytes)"));
+        if (written != session.expectedChunkSize(index)) {
+            storageService.delete(key);
+            throw new BusinessException("Tamanho da parte " + index + " difere do esperado ("
+                    + session.expectedChunkSize(index) + " bytes)");
+        }
+        log.debug("Parte {} da sessão {} recebida", index, uploadId);
+    }
+
+    /**
+     * Consulta a sessão e as partes já recebidas, para retomada pelo cliente.
+     */
+    @Transactional(readOnly = true)
+    public UploadSessionResponse getStatus(String uploadId, Long userId) {
+        UploadSession session = findOwnedSession(uploadId, userId);
+        List<Integer> received = session.getStatus() != UploadSessionStatus.COMPLETED
+                ? receivedChunks(session)
+                : List.of();
+        return toResponse(session, received);
+    }
+
+    /**
+     * Finaliza a sessão: concatena as partes no storage deduplicado e cria o File (status PENDING).
+     * Idempotente: finalizar uma sessão já concluída retorna o arquivo criado.
+     * A sessão é marcada como COMPLETING em uma transação curta; a concatenação e a criação do arquivo
+     * rodam em outra transação, que só conclui a sessão se esta finalização ainda a detiver.
+     * As partes são removidas após o commit; em caso de falha a sessão volta para ACTIVE e as partes
+     * permanecem para nova tentativa. Uma finalização interrompida pode ser assumida após o timeout.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FileResponse complete(String uploadId, Long userId) {
+        UploadSession session = findOwnedSession(uploadId, userId);
+        if (session.getStatus() == UploadSessionStatus.COMPLETED) {
+            return fileService.findById(session.getFile().getId());
+        }
+        if (session.isExpired()) {
+            throw new BusinessException("Sessão de upload expirada");
+        }
+
+        int missing = session.getTotalChunks() - receivedChunks(session).size();
+        if (missing > 0) {
+            throw new BusinessException("Upload incompleto: faltam " + missing + " partes");
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (uploadSessionRepository.startCompletion(session.getId(), startedAt, startedAt.minus(completionTimeout)) == 0) {
+            UploadSession current = findOwnedSession(uploadId, userId);
+            if (current.getStatus() == UploadSessionStatus.COMPLETED) {
+                return fileService.findById(current.getFile().getId());
+            }
+            throw new BusinessException("Finalização da sessão de upload já está em andamento");
+        }
+
+        try {
+            return newTransaction.execute(status -> assemble(session, userId, startedAt));
+        } catch (RuntimeException e) {
+            uploadSessionRepository.abandonCompletion(session.getId(), startedAt);
+            throw e;
+        }
+    }
+
+    /**
+     * Remove sessões expiradas e as partes das que não foram finalizadas.
+     * Retorna a quantidade de sessões removidas.
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.cleanup-interval-ms:900000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int purgeExpired() {
+        int purged = 0;
+        List<UploadSession> expired;
+        do {
+            expired = uploadSessionRepository.findByExpiresAtBeforeOrderByExpiresAt(
+                    LocalDateTime.now(), Limit.of(PURGE_BATCH_SIZE));
+            for (UploadSession session : expired) {
+                if (session.getStatus() != UploadSessionStatus.COMPLETED) {
+                    deleteChunks(session);
+                }
+            }
+            uploadSessionRepository.deleteAllInBatch(expired);
+            purged += expired.size();
+        } while (expired.size() == PURGE_BATCH_SIZE);
+
+        if (purged > 0) {
+            log.info("Sessões de upload expiradas removidas: {}", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Concatena as partes, cria o arquivo e conclui a sessão, na transação corrente.
+     */
+    private FileResponse assemble(UploadSession session, Long userId, LocalDateTime startedAt) {
+        FileResponse created;
+        try (ReadableByteChannel content = new ConcatenatingReadableByteChannel(storageService, chunkKeys(session))) {
+            created = fileService.create(toFileRequest(session), userId, content);
+        } catch (IOException e) {
+            throw new StorageException("Falha ao ler partes do upload " + session.getUploadId(), e);
+        }
+
+        if (uploadSessionRepository.finishCompletion(session.getId(), startedAt,
+                fileRepository.getReferenceById(created.getId())) == 0) {
+            throw new BusinessException("Finalização da sessão de upload foi assumida por outra requisição");
+        }
+        deleteChunksAfterCommit(session);
+        log.info("Sessão de upload {} finalizada: arquivo {}", session.getUploadId(), created.getId());
+        return created;
+    }
+
+    private UploadSession findOwnedSession(String uploadId, Long userId) {
+        UploadSession session = uploadSessionRepository.findByUploadId(uploadId)
+                .orElseThrow(() -> new EntityNotFoundException("Sessão de upload não encontrada: " + uploadId));
+        checkOwner(session, userId);
+        return session;
+    }
+
+    private UploadSession findActiveSession(String uploadId, Long userId) {
+        UploadSession session = findOwnedSession(uploadId, userId);
+        if (session.getStatus() == UploadSessionStatus.COMPLETING) {
+            throw new BusinessException("Sessão de upload em finalização");
+        }
+        if (session.getStatus() != UploadSessionStatus.ACTIVE) {
+            throw new BusinessException("Sessão de upload já finalizada");
+        }
+        if (session.isExpired()) {
+            throw new BusinessException("Sessão de upload expirada");
+        }
+        return session;
+    }
+
+    private void checkOwner(UploadSession session, Long userId) {
+        if (!session.getUploadedBy().getId().equals(userId)) {
+            throw new BusinessException("Sessão de upload pertence a outro usuário");
+        }
+    }
+
+    private List<Integer> receivedChunks(UploadSession session) {
+        return IntStream.range(0, session.getTotalChunks())
+                .filter(index -> storageService.exists(chunkKey(session.getUploadId(), index)))
+                .boxed()
+                .toList();
+    }
+
+    private List<String> chunkKeys(UploadSession session) {
+        List<String> keys = new ArrayList<>(session.getTotalChunks());
+        for (int index = 0; index < session.getTotalChunks(); index++) {
+            keys.add(chunkKey(session.getUploadId(), index));
+        }
+        return keys;
+    }
+
+    private String chunkKey(String uploadId, int index) {
+        return CHUNK_PREFIX + uploadId + "/" + index;
+    }
+
+    private void deleteChunks(UploadSession session) {
+        chunkKeys(session).forEach(storageService::delete);
+    }
+
+    private void deleteChunksAfterCommit(UploadSession session) {
+        List<String> keys = chunkKeys(session);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                keys.forEach(storageService::delete);
+            }
+        });
+    }
+
+    /**
+     * Reconstrói o FileRequest a partir dos metadados guardados na sessão.
+     */
+    private FileRequest toFileRequest(UploadSession session) {
+        return FileRequest.builder()
+                .title(session.getTitle())
+                .fileName(session.getFileName())
+                .fileType(session.getFileType())
+                .fileSize(session.getFileSize())
+                .description(session.getDescription())
+                .disciplineId(session.getDiscipline().getId())
+                .version(session.getVersion())
+                .build();
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, List<Integer> receivedChunks) {
+        return UploadSessionResponse.builder()
+                .uploadId(session.getUploadId())
+                .fileName(session.getFileName())
+                .fileSize(session.getFileSize())
+                .chunkSize(session.getChunkSize())
+                .totalChunks(session.getTotalChunks())
+                .receivedChunks(receivedChunks)
+                .status(session.getStatus())
+                .expiresAt(session.getExpiresAt())
+                .fileId(session.getFile() != null ? session.getFile().getId() : null)
+                .build();
+    }
+}
@@ -10,7 +10,6 @@ import com.academicplatform.repository.UserRepository;
 import com.academicplatform.util.ServiceHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,8 +28,9 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final ServiceHelper serviceHelper;
+    private final LastLoginService lastLoginService;
 
     /**
      * Cria um novo usuário.
@@ -101,6 +101,7 @@ public class UserService {
 
     /**
      * Converte User para UserResponse.
+     * O último login considera o valor ainda pendente de gravação no LastLoginService.
      */
     private UserResponse toResponse(User user) {
         return UserResponse.builder()
@@ -113,7 +114,7 @@ public class UserService {
                 .active(user.getActive())
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
-                .lastLogin(user.getLastLogin())
+                .lastLogin(lastLoginService.resolve(user.getId(), user.getLastLogin()))
                 .build();
     }
 
@@ -124,7 +125,7 @@ public class UserService {
         return User.builder()
                 .name(request.getName())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .role(request.getRole())
                 .institution(institution)
                 .active(request.getActive() != null ? request.getActive() : true)
@@ -159,7 +160,7 @@ public class UserService {
         user.setInstitution(institution);
         
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
         }
         
         if (request.getActive() != null) {
@@ -0,0 +1,84 @@
+package com.academicplatform.storage;
+
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.exception.RangeNotSatisfiableException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Intervalo de bytes de um download (HTTP Range), com início e fim inclusivos.
+ * Suporta um único intervalo nos formatos "bytes=inicio-fim", "bytes=inicio-" e "bytes=-sufixo".
+ * 
+ * @author Felipe Oliveira
+ */
+@Getter
+@AllArgsConstructor
+public class ByteRange {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    /**
+     * Quantidade de bytes do intervalo.
+     */
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Valor do header Content-Range para o intervalo.
+     */
+    public String toContentRange(long totalSize) {
+        return "bytes " + start + "-" + end + "/" + totalSize;
+    }
+
+    /**
+     * Intervalo que cobre o objeto inteiro.
+     */
+    public static ByteRange full(long size) {
+        return new ByteRange(0, size - 1);
+    }
+
+    /**
+     * Interpreta o header Range para um objeto de tamanho size.
+     * Retorna null se o header estiver ausente. Lança BusinessException se o header for inválido
+     * e RangeNotSatisfiableException se o intervalo não puder ser atendido (HTTP 416).
+     */
+    public static ByteRange parse(String header, long size) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        if (!header.startsWith(BYTES_UNIT) || header.contains(",")) {
+            throw new BusinessException("Intervalo de bytes inválido: " + header);
+        }
+
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            throw new BusinessException("Intervalo de bytes inválido: " + header);
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start > end || start >= size) {
+                throw new RangeNotSatisfiableException("Intervalo de bytes não atendível: " + header, size);
+            }
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Intervalo de bytes inválido: " + header);
+        }
+    }
+}
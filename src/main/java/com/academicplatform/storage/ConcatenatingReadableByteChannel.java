@@ -0,0 +1,58 @@
+package com.academicplatform.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Canal de leitura que expõe vários objetos do storage como um único fluxo, em ordem.
+ * Cada objeto é aberto apenas quando o anterior termina.
+ * 
+ * @author Felipe Oliveira
+ */
+public class ConcatenatingReadableByteChannel implements ReadableByteChannel {
+
+    private final StorageService storageService;
+    private final Iterator<String> keys;
+    private ReadableByteChannel current;
+    private boolean open = true;
+
+    public ConcatenatingReadableByteChannel(StorageService storageService, List<String> keys) {
+        this.storageService = storageService;
+        this.keys = keys.iterator();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        while (true) {
+            if (current == null) {
+                if (!keys.hasNext()) {
+                    return -1;
+                }
+                current = storageService.open(keys.next());
+            }
+            int read = current.read(dst);
+            if (read != -1) {
+                return read;
+            }
+            current.close();
+            current = null;
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+}
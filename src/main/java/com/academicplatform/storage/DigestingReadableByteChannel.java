@@ -0,0 +1,45 @@
+package com.academicplatform.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+
+/**
+ * Canal de leitura que atualiza um MessageDigest com os bytes lidos.
+ * Permite calcular o hash do conteúdo durante o streaming, sem uma segunda leitura.
+ * 
+ * @author Felipe Oliveira
+ */
+public class DigestingReadableByteChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel source;
+    private final MessageDigest digest;
+
+    public DigestingReadableByteChannel(ReadableByteChannel source, MessageDigest digest) {
+        this.source = source;
+        this.digest = digest;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int start = dst.position();
+        int read = source.read(dst);
+        if (read > 0) {
+            ByteBuffer view = dst.duplicate();
+            view.position(start).limit(start + read);
+            digest.update(view);
+        }
+        return read;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return source.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
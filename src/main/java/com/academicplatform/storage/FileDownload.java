@@ -0,0 +1,81 @@
+package com.academicplatform.storage;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import com.academicplatform.enums.ContentEncoding;
+import com.academicplatform.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Download pronto para ser enviado ao cliente.
+ * Contém os metadados para os headers HTTP e transfere o conteúdo direto do storage para o canal de saída,
+ * ou da memória quando o conteúdo veio do cache de arquivos populares.
+ * 
+ * @author Felipe Oliveira
+ */
+@Getter
+@Builder
+public class FileDownload {
+
+    private final String storageKey;
+    private final String fileName;
+    private final String contentType;
+    private final long totalSize;
+
+    /**
+     * Intervalo solicitado. Null quando o download é do arquivo inteiro.
+     */
+    private final ByteRange range;
+
+    /**
+     * Codificação do conteúdo enviado (header Content-Encoding). Null quando é o original.
+     * Nesse caso storageKey e totalSize referem-se à variante comprimida.
+     */
+    private final ContentEncoding contentEncoding;
+
+    private final StorageService storageService;
+
+    /**
+     * Conteúdo completo já em memória (cache). Null quando a leitura deve ir ao storage.
+     */
+    private final byte[] cachedContent;
+
+    /**
+     * Indica se é uma resposta parcial (HTTP 206).
+     */
+    public boolean isPartial() {
+        return range != null;
+    }
+
+    /**
+     * Quantidade de bytes que serão enviados (Content-Length).
+     */
+    public long getContentLength() {
+        return range != null ? range.length() : totalSize;
+    }
+
+    /**
+     * Transfere o conteúdo (ou o intervalo) para o canal de saída.
+     * Sem cache, a transferência vai direto do storage, sem buffer intermediário na heap.
+     */
+    public long transferTo(WritableByteChannel target) {
+        ByteRange effective = range != null ? range : ByteRange.full(totalSize);
+        if (cachedContent == null) {
+            return storageService.transferTo(storageKey, effective.getStart(), effective.length(), target);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(cachedContent, (int) effective.getStart(), (int) effective.length());
+        try {
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Falha ao enviar arquivo: " + storageKey, e);
+        }
+        return effective.length();
+    }
+}
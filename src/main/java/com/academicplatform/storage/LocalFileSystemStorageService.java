@@ -0,0 +1,147 @@
+package com.academicplatform.storage;
+
+import com.academicplatform.exception.StorageException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Storage em sistema de arquivos local.
+ * Uploads são gravados via FileChannel.transferFrom em um arquivo temporário e movidos atomicamente;
+ * downloads usam FileChannel.transferTo, permitindo zero-copy (sendfile) quando o destino é um socket.
+ * 
+ * @author Felipe Oliveira
+ */
+@Service
+@Slf4j
+public class LocalFileSystemStorageService implements StorageService {
+
+    private static final long TRANSFER_CHUNK_BYTES = 8L * 1024 * 1024;
+    private static final String TEMP_SUFFIX = ".part";
+
+    private final Path rootDir;
+
+    public LocalFileSystemStorageService(@Value("${app.storage.local.root-dir:./storage}") String rootDir) {
+        this.rootDir = Path.of(rootDir).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public long store(String key, ReadableByteChannel source) {
+        Path target = resolve(key);
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            Files.createDirectories(target.getParent());
+            long written = 0;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = out.transferFrom(source, written, TRANSFER_CHUNK_BYTES)) > 0) {
+                    written += transferred;
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Objeto gravado no storage: {} ({} bytes)", key, written);
+            return written;
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new StorageException("Falha ao gravar arquivo no storage: " + key, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    @Override
+    public ReadableByteChannel open(String key) {
+        try {
+            return FileChannel.open(resolve(key), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new StorageException("Arquivo não encontrado no storage: " + key, e);
+        } catch (IOException e) {
+            throw new StorageException("Falha ao ler arquivo do storage: " + key, e);
+        }
+    }
+
+    @Override
+    public void move(String sourceKey, String targetKey) {
+        Path target = resolve(targetKey);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(resolve(sourceKey), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new StorageException("Falha ao mover arquivo no storage: " + sourceKey + " -> " + targetKey, e);
+        }
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) {
+        try (FileChannel in = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long end = Math.min(position + count, in.size());
+            long current = position;
+            while (current < end) {
+                long transferred = in.transferTo(current, end - current, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                current += transferred;
+            }
+            return current - position;
+        } catch (NoSuchFileException e) {
+            throw new StorageException("Arquivo não encontrado no storage: " + key, e);
+        } catch (IOException e) {
+            throw new StorageException("Falha ao ler arquivo do storage: " + key, e);
+        }
+    }
+
+    @Override
+    public long size(String key) {
+        try {
+            return Files.size(resolve(key));
+        } catch (IOException e) {
+            throw new StorageException("Arquivo não encontrado no storage: " + key, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new StorageException("Falha ao remover arquivo do storage: " + key, e);
+        }
+    }
+
+    /**
+     * Converte a chave em caminho dentro do diretório raiz, recusando chaves que escapem dele.
+     */
+    private Path resolve(String key) {
+        Path path = rootDir.resolve(key).normalize();
+        if (!path.startsWith(rootDir) || path.equals(rootDir)) {
+            throw new StorageException("Chave de storage inválida: " + key);
+        }
+        return path;
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Não foi possível remover arquivo temporário {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.academicplatform.storage;
+
+import com.academicplatform.exception.PayloadTooLargeException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Canal de leitura que recusa conteúdo maior que um limite.
+ * Lê no máximo um byte além do limite e lança PayloadTooLargeException assim que ele é ultrapassado,
+ * sem deixar o restante do conteúdo ser transmitido para o storage.
+ * 
+ * @author Felipe Oliveira
+ */
+public class SizeLimitedReadableByteChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel source;
+    private final long maxBytes;
+    private final String message;
+    private long read;
+
+    public SizeLimitedReadableByteChannel(ReadableByteChannel source, long maxBytes, String message) {
+        this.source = source;
+        this.maxBytes = maxBytes;
+        this.message = message;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        long allowance = maxBytes - read + 1;
+        int n;
+        if (dst.remaining() > allowance) {
+            ByteBuffer window = dst.slice();
+            window.limit((int) allowance);
+            n = source.read(window);
+            if (n > 0) {
+                dst.position(dst.position() + n);
+            }
+        } else {
+            n = source.read(dst);
+        }
+
+        if (n > 0) {
+            read += n;
+            if (read > maxBytes) {
+                throw new PayloadTooLargeException(message);
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return source.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
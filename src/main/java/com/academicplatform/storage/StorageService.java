@@ -0,0 +1,51 @@
+package com.academicplatform.storage;
+
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Abstração do storage binário dos arquivos.
+ * Objetos são identificados por uma chave relativa (ex: "files/1/abc") e trafegam por canais NIO,
+ * sem carregar o conteúdo inteiro em memória. Implementações podem usar disco local ou object stores.
+ * 
+ * @author Felipe Oliveira
+ */
+public interface StorageService {
+
+    /**
+     * Grava o conteúdo do canal na chave, substituindo o objeto existente.
+     * O objeto só fica visível quando a gravação termina. Retorna a quantidade de bytes gravados.
+     */
+    long store(String key, ReadableByteChannel source);
+
+    /**
+     * Abre o objeto para leitura sequencial. O chamador deve fechar o canal.
+     */
+    ReadableByteChannel open(String key);
+
+    /**
+     * Move o objeto de uma chave para outra, substituindo o destino se existir.
+     */
+    void move(String sourceKey, String targetKey);
+
+    /**
+     * Transfere count bytes do objeto, a partir de position, para o canal de destino.
+     * Retorna a quantidade de bytes transferidos.
+     */
+    long transferTo(String key, long position, long count, WritableByteChannel target);
+
+    /**
+     * Retorna o tamanho do objeto em bytes.
+     */
+    long size(String key);
+
+    /**
+     * Verifica se existe objeto gravado na chave.
+     */
+    boolean exists(String key);
+
+    /**
+     * Remove o objeto da chave. Sem efeito se não existir.
+     */
+    void delete(String key);
+}
@@ -0,0 +1,231 @@
+package com.academicplatform.util;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Autômato Aho–Corasick imutável para busca simultânea de vários termos em um texto.
+ * Texto e termos são normalizados (minúsculas, sem acentos, espaços colapsados), então
+ * "Ação" casa com "acao". Só são reconhecidas ocorrências de palavras inteiras.
+ * A busca percorre o texto uma única vez, independentemente da quantidade de termos.
+ * Instâncias são seguras para uso concorrente.
+ *
+ * @author Felipe Oliveira
+ */
+public final class AhoCorasickMatcher {
+
+    private static final AhoCorasickMatcher EMPTY = new AhoCorasickMatcher(
+            new String[0], new char[][]{new char[0]}, new int[][]{new int[0]}, new int[]{0}, new int[]{-1}, new int[]{-1});
+
+    private final String[] terms;
+    /** Caracteres de transição de cada nó, ordenados para busca binária. */
+    private final char[][] edgeChars;
+    /** Nó de destino de cada transição, alinhado com edgeChars. */
+    private final int[][] edgeTargets;
+    /** Link de falha: nó do maior sufixo próprio que também é prefixo de algum termo. */
+    private final int[] fail;
+    /** Índice do termo que termina no nó, ou -1. */
+    private final int[] termAt;
+    /** Nó mais próximo na cadeia de falha onde termina algum termo, ou -1. */
+    private final int[] outputLink;
+
+    private AhoCorasickMatcher(String[] terms, char[][] edgeChars, int[][] edgeTargets,
+                               int[] fail, int[] termAt, int[] outputLink) {
+        this.terms = terms;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.termAt = termAt;
+        this.outputLink = outputLink;
+    }
+
+    /**
+     * Compila os termos em um autômato. Termos vazios após a normalização e repetidos são ignorados.
+     */
+    public static AhoCorasickMatcher compile(Collection<String> rawTerms) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String raw : rawTerms) {
+            String term = normalize(raw);
+            if (!term.isEmpty()) {
+                unique.add(term);
+            }
+        }
+        if (unique.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminal.add(-1);
+
+        String[] terms = unique.toArray(String[]::new);
+        for (int t = 0; t < terms.length; t++) {
+            int node = 0;
+            for (char c : terms[t].toCharArray()) {
+                Integer next = trie.get(node).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    terminal.add(-1);
+                    trie.get(node).put(c, next);
+                }
+                node = next;
+            }
+            terminal.set(node, t);
+        }
+
+        int size = trie.size();
+        char[][] edgeChars = new char[size][];
+        int[][] edgeTargets = new int[size][];
+        int[] termAt = new int[size];
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> edges = trie.get(node);
+            edgeChars[node] = new char[edges.size()];
+            edgeTargets[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                edgeChars[node][i] = edge.getKey();
+                edgeTargets[node][i] = edge.getValue();
+                i++;
+            }
+            termAt[node] = terminal.get(node);
+        }
+
+        int[] fail = new int[size];
+        int[] outputLink = new int[size];
+        outputLink[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            fail[child] = 0;
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+        AhoCorasickMatcher partial = new AhoCorasickMatcher(terms, edgeChars, edgeTargets, fail, termAt, outputLink);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                char c = edgeChars[node][i];
+                int child = edgeTargets[node][i];
+                int f = partial.step(fail[node], c);
+                fail[child] = f;
+                outputLink[child] = termAt[f] >= 0 ? f : outputLink[f];
+                queue.add(child);
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * Autômato sem termos; nunca encontra ocorrências.
+     */
+    public static AhoCorasickMatcher empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Normaliza um texto para comparação: remove acentos, converte para minúsculas
+     * e colapsa sequências de espaços em um único espaço.
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = folded.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                folded.append(' ');
+                pendingSpace = false;
+            }
+            folded.append(Character.toLowerCase(c));
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Indica se o autômato não possui termos.
+     */
+    public boolean isEmpty() {
+        return terms.length == 0;
+    }
+
+    /**
+     * Quantidade de termos compilados.
+     */
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * Retorna os termos (normalizados) encontrados no texto como palavras inteiras,
+     * sem repetição, na ordem da primeira ocorrência.
+     */
+    public List<String> findAll(String text) {
+        if (isEmpty() || text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String folded = normalize(text);
+        Set<String> found = new LinkedHashSet<>();
+        int node = 0;
+        for (int i = 0; i < folded.length(); i++) {
+            node = step(node, folded.charAt(i));
+            int match = termAt[node] >= 0 ? node : outputLink[node];
+            while (match >= 0) {
+                String term = terms[termAt[match]];
+                if (isWholeWord(folded, i - term.length() + 1, i)) {
+                    found.add(term);
+                }
+                match = outputLink[match];
+            }
+        }
+        return found.isEmpty() ? List.of() : List.copyOf(found);
+    }
+
+    /**
+     * Indica se algum termo ocorre no texto como palavra inteira.
+     */
+    public boolean matches(String text) {
+        return !findAll(text).isEmpty();
+    }
+
+    /**
+     * Transição do autômato: segue links de falha até encontrar uma aresta para c (ou chegar à raiz).
+     */
+    private int step(int node, char c) {
+        while (true) {
+            int idx = Arrays.binarySearch(edgeChars[node], c);
+            if (idx >= 0) {
+                return edgeTargets[node][idx];
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = fail[node];
+        }
+    }
+
+    private static boolean isWholeWord(String text, int start, int end) {
+        boolean leftBoundary = start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+        boolean rightBoundary = end == text.length() - 1 || !Character.isLetterOrDigit(text.charAt(end + 1));
+        return leftBoundary && rightBoundary;
+    }
+}
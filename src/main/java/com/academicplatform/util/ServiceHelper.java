@@ -1,9 +1,13 @@
 package com.academicplatform.util;
 
 import com.academicplatform.entity.*;
+import com.academicplatform.exception.BusinessException;
 import com.academicplatform.exception.EntityNotFoundException;
 import com.academicplatform.repository.*;
+import com.academicplatform.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 /**
@@ -51,5 +55,17 @@ public class ServiceHelper {
         return fileRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Arquivo", id));
     }
+
+    /**
+     * Retorna o usuário autenticado na requisição atual, montado a partir do token JWT (sem acesso ao banco).
+     * Lança exceção se a requisição não estiver autenticada.
+     */
+    public AuthenticatedUser getAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal;
+        }
+        throw new BusinessException("Usuário não autenticado");
+    }
 }
 
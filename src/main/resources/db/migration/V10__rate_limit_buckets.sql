@@ -0,0 +1,9 @@
+-- Token buckets do rate limiter compartilhado entre nós (app.security.rate-limit.store=jdbc).
+
+CREATE TABLE rate_limit_buckets (
+    bucket_key  VARCHAR(200)      NOT NULL PRIMARY KEY,
+    tokens      DOUBLE PRECISION  NOT NULL,
+    refilled_at TIMESTAMP(6)      NOT NULL
+);
+
+CREATE INDEX idx_rate_limit_bucket_refilled ON rate_limit_buckets (refilled_at);
@@ -0,0 +1,25 @@
+-- Tokens de recuperação de senha em tabela própria, armazenando apenas o hash SHA-256 (índice único).
+-- Tokens ainda válidos em users são migrados já com hash; as colunas antigas são removidas.
+
+CREATE TABLE password_reset_tokens (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT        NOT NULL,
+    token_hash  VARCHAR(64)   NOT NULL,
+    expires_at  TIMESTAMP(6)  NOT NULL,
+    created_at  TIMESTAMP(6)  NOT NULL,
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT uk_password_reset_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_password_reset_token_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_password_reset_token_user ON password_reset_tokens (user_id);
+CREATE INDEX idx_password_reset_token_expires ON password_reset_tokens (expires_at);
+
+INSERT INTO password_reset_tokens (user_id, token_hash, expires_at, created_at)
+SELECT id, encode(sha256(convert_to(reset_token, 'UTF8')), 'hex'), reset_token_expires, now()
+FROM users
+WHERE reset_token IS NOT NULL AND reset_token_expires > now()
+ON CONFLICT (token_hash) DO NOTHING;
+
+DROP INDEX IF EXISTS idx_user_reset_token;
+ALTER TABLE users DROP COLUMN reset_token, DROP COLUMN reset_token_expires;
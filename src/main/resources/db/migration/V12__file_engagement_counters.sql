@@ -0,0 +1,15 @@
+-- Contadores de favoritos e comentários ativos por arquivo, mantidos pela aplicação
+-- com UPDATEs atômicos. Os valores iniciais são recalculados a partir das tabelas de origem.
+
+ALTER TABLE files ADD COLUMN IF NOT EXISTS favorites_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE files ADD COLUMN IF NOT EXISTS comments_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE files f
+SET favorites_count = s.total
+FROM (SELECT file_id, COUNT(*) AS total FROM favorites GROUP BY file_id) s
+WHERE f.id = s.file_id;
+
+UPDATE files f
+SET comments_count = s.total
+FROM (SELECT file_id, COUNT(*) AS total FROM comments WHERE active = true GROUP BY file_id) s
+WHERE f.id = s.file_id;
@@ -0,0 +1,8 @@
+-- Finalização de upload em duas etapas: a sessão é marcada como COMPLETING em transação curta
+-- e as partes são concatenadas fora dela; completion_started_at identifica a finalização em andamento.
+
+ALTER TABLE upload_sessions DROP CONSTRAINT IF EXISTS upload_sessions_status_check;
+ALTER TABLE upload_sessions ADD CONSTRAINT upload_sessions_status_check
+    CHECK (status IN ('ACTIVE', 'COMPLETING', 'COMPLETED'));
+
+ALTER TABLE upload_sessions ADD COLUMN IF NOT EXISTS completion_started_at TIMESTAMP(6);
@@ -0,0 +1,4 @@
+-- Variantes comprimidas são geradas após o commit; a retomada periódica busca os conteúdos
+-- ainda não avaliados, que são poucos em relação ao total.
+
+CREATE INDEX IF NOT EXISTS idx_content_blob_compression_pending ON content_blobs (id) WHERE compression_checked = false;
@@ -0,0 +1,120 @@
+-- Schema inicial, equivalente ao gerado pelo Hibernate a partir das entidades.
+-- Bancos já criados via ddl-auto=update são marcados nesta versão (baseline-on-migrate).
+
+CREATE TABLE institutions (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(100) NOT NULL,
+    code            VARCHAR(50),
+    description     VARCHAR(200),
+    plan            VARCHAR(20)  NOT NULL CHECK (plan IN ('FREE', 'BASIC', 'PREMIUM', 'ENTERPRISE')),
+    max_users       INTEGER      NOT NULL,
+    max_storagegb   INTEGER      NOT NULL,
+    expires_at      TIMESTAMP(6),
+    active          BOOLEAN      NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_institution_name UNIQUE (name)
+);
+
+CREATE TABLE users (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                VARCHAR(100) NOT NULL,
+    email               VARCHAR(100) NOT NULL,
+    password            VARCHAR(255) NOT NULL,
+    role                VARCHAR(20)  NOT NULL CHECK (role IN ('SUPER_ADMIN', 'ADMIN', 'TEACHER', 'STUDENT')),
+    institution_id      BIGINT       NOT NULL,
+    active              BOOLEAN      NOT NULL,
+    last_login          TIMESTAMP(6),
+    reset_token         VARCHAR(255),
+    reset_token_expires TIMESTAMP(6),
+    created_at          TIMESTAMP(6) NOT NULL,
+    updated_at          TIMESTAMP(6),
+    CONSTRAINT uk_user_email UNIQUE (email),
+    CONSTRAINT fk_user_institution FOREIGN KEY (institution_id) REFERENCES institutions (id)
+);
+
+CREATE TABLE disciplines (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(100) NOT NULL,
+    code            VARCHAR(20),
+    description     VARCHAR(500),
+    institution_id  BIGINT       NOT NULL,
+    active          BOOLEAN      NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT fk_discipline_institution FOREIGN KEY (institution_id) REFERENCES institutions (id)
+);
+
+CREATE TABLE files (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title           VARCHAR(200)  NOT NULL,
+    file_name       VARCHAR(500)  NOT NULL,
+    file_type       VARCHAR(50)   NOT NULL CHECK (file_type IN ('PDF', 'DOC', 'DOCX', 'XLS', 'XLSX', 'PPT', 'PPTX',
+                                                               'IMG', 'JPG', 'JPEG', 'PNG', 'GIF', 'TXT')),
+    file_size       BIGINT        NOT NULL,
+    file_path       VARCHAR(500),
+    description     VARCHAR(1000),
+    discipline_id   BIGINT        NOT NULL,
+    institution_id  BIGINT        NOT NULL,
+    uploaded_by     BIGINT        NOT NULL,
+    status          VARCHAR(20)   NOT NULL CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED')),
+    download_count  INTEGER       NOT NULL,
+    approved_at     TIMESTAMP(6),
+    version         VARCHAR(20),
+    created_at      TIMESTAMP(6)  NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT fk_file_discipline FOREIGN KEY (discipline_id) REFERENCES disciplines (id),
+    CONSTRAINT fk_file_institution FOREIGN KEY (institution_id) REFERENCES institutions (id),
+    CONSTRAINT fk_file_user FOREIGN KEY (uploaded_by) REFERENCES users (id)
+);
+
+CREATE TABLE favorites (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT       NOT NULL,
+    file_id     BIGINT       NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT uk_favorite_user_file UNIQUE (user_id, file_id),
+    CONSTRAINT fk_favorite_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_favorite_file FOREIGN KEY (file_id) REFERENCES files (id)
+);
+
+CREATE TABLE comments (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    content     VARCHAR(2000) NOT NULL,
+    user_id     BIGINT        NOT NULL,
+    file_id     BIGINT        NOT NULL,
+    active      BOOLEAN       NOT NULL,
+    created_at  TIMESTAMP(6)  NOT NULL,
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT fk_comment_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_comment_file FOREIGN KEY (file_id) REFERENCES files (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_institution_code ON institutions (code);
+CREATE INDEX IF NOT EXISTS idx_institution_active ON institutions (active);
+CREATE INDEX IF NOT EXISTS idx_institution_plan ON institutions (plan);
+
+CREATE INDEX IF NOT EXISTS idx_user_email ON users (email);
+CREATE INDEX IF NOT EXISTS idx_user_institution ON users (institution_id);
+CREATE INDEX IF NOT EXISTS idx_user_active ON users (active);
+CREATE INDEX IF NOT EXISTS idx_user_role ON users (role);
+
+CREATE INDEX IF NOT EXISTS idx_discipline_code ON disciplines (code);
+CREATE INDEX IF NOT EXISTS idx_discipline_institution ON disciplines (institution_id);
+CREATE INDEX IF NOT EXISTS idx_discipline_active ON disciplines (active);
+
+CREATE INDEX IF NOT EXISTS idx_file_discipline ON files (discipline_id);
+CREATE INDEX IF NOT EXISTS idx_file_institution ON files (institution_id);
+CREATE INDEX IF NOT EXISTS idx_file_uploaded_by ON files (uploaded_by);
+CREATE INDEX IF NOT EXISTS idx_file_status ON files (status);
+CREATE INDEX IF NOT EXISTS idx_file_type ON files (file_type);
+CREATE INDEX IF NOT EXISTS idx_file_created ON files (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_favorite_user ON favorites (user_id);
+CREATE INDEX IF NOT EXISTS idx_favorite_file ON favorites (file_id);
+
+CREATE INDEX IF NOT EXISTS idx_comment_user ON comments (user_id);
+CREATE INDEX IF NOT EXISTS idx_comment_file ON comments (file_id);
+CREATE INDEX IF NOT EXISTS idx_comment_active ON comments (active);
+CREATE INDEX IF NOT EXISTS idx_comment_created ON comments (created_at);
@@ -0,0 +1,80 @@
+-- Substitui índices de coluna única por índices compostos e parciais alinhados às consultas dos repositórios.
+-- Índices cobertos pelo prefixo de outro índice ou de uma constraint única são removidos.
+
+-- files -----------------------------------------------------------------------------------------
+
+DROP INDEX IF EXISTS idx_file_discipline;
+DROP INDEX IF EXISTS idx_file_institution;
+DROP INDEX IF EXISTS idx_file_created;
+
+-- findByDiscipline, findByDisciplineAndStatus (lista e paginado), countByStatusAndDisciplineId
+CREATE INDEX IF NOT EXISTS idx_file_discipline_status ON files (discipline_id, status);
+
+-- findByInstitution, findByStatusAndInstitution, countByStatusAndInstitution, reconciliações
+CREATE INDEX IF NOT EXISTS idx_file_institution_status ON files (institution_id, status);
+
+-- findByFileTypeAndDiscipline
+CREATE INDEX IF NOT EXISTS idx_file_discipline_type ON files (discipline_id, file_type);
+
+-- findApprovedFilesByDiscipline e paginação keyset de aprovados: WHERE discipline_id ORDER BY created_at, id
+CREATE INDEX IF NOT EXISTS idx_file_approved_discipline_created
+    ON files (discipline_id, created_at DESC, id DESC) WHERE status = 'APPROVED';
+
+-- findPendingFilesByInstitution e paginação keyset de pendentes: WHERE institution_id ORDER BY created_at, id
+CREATE INDEX IF NOT EXISTS idx_file_pending_institution_created
+    ON files (institution_id, created_at DESC, id DESC) WHERE status = 'PENDING';
+
+-- findMostDownloadedFilesByInstitution: WHERE institution_id ORDER BY download_count DESC
+CREATE INDEX IF NOT EXISTS idx_file_approved_institution_downloads
+    ON files (institution_id, download_count DESC) WHERE status = 'APPROVED';
+
+-- comments --------------------------------------------------------------------------------------
+
+DROP INDEX IF EXISTS idx_comment_file;
+DROP INDEX IF EXISTS idx_comment_active;
+DROP INDEX IF EXISTS idx_comment_created;
+
+-- findByFile
+CREATE INDEX IF NOT EXISTS idx_comment_file_created ON comments (file_id, created_at, id);
+
+-- findByFileAndActiveTrue, findActiveCommentsByFile (ASC e DESC), countActiveCommentsByFile
+CREATE INDEX IF NOT EXISTS idx_comment_file_active_created
+    ON comments (file_id, created_at, id) WHERE active = true;
+
+-- favorites -------------------------------------------------------------------------------------
+
+-- Buscas por user_id já usam o prefixo de uk_favorite_user_file.
+DROP INDEX IF EXISTS idx_favorite_user;
+
+-- findByUserOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_favorite_user_created ON favorites (user_id, created_at DESC, id DESC);
+
+-- users -----------------------------------------------------------------------------------------
+
+-- findByEmail/existsByEmail já usam uk_user_email.
+DROP INDEX IF EXISTS idx_user_email;
+DROP INDEX IF EXISTS idx_user_institution;
+DROP INDEX IF EXISTS idx_user_active;
+
+-- findByInstitution, findByRoleAndInstitution
+CREATE INDEX IF NOT EXISTS idx_user_institution_role ON users (institution_id, role);
+
+-- countActiveUsersByInstitution, hasReachedUserLimit, findByInstitutionAndActiveTrue,
+-- findByRoleAndInstitutionAndActiveTrue
+CREATE INDEX IF NOT EXISTS idx_user_institution_role_active
+    ON users (institution_id, role) WHERE active = true;
+
+-- findByResetToken
+CREATE INDEX IF NOT EXISTS idx_user_reset_token ON users (reset_token) WHERE reset_token IS NOT NULL;
+
+-- disciplines -----------------------------------------------------------------------------------
+
+DROP INDEX IF EXISTS idx_discipline_code;
+DROP INDEX IF EXISTS idx_discipline_institution;
+DROP INDEX IF EXISTS idx_discipline_active;
+
+-- findByInstitution, findByCodeAndInstitution, existsByCodeAndInstitution
+CREATE INDEX IF NOT EXISTS idx_discipline_institution_code ON disciplines (institution_id, code);
+
+-- findByInstitutionAndActiveTrue, countActiveDisciplinesByInstitution
+CREATE INDEX IF NOT EXISTS idx_discipline_institution_active ON disciplines (institution_id) WHERE active = true;
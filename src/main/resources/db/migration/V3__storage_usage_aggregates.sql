@@ -0,0 +1,20 @@
+-- Agregados de armazenamento por disciplina e instituição, mantidos pela aplicação.
+-- Arquivos rejeitados não contam.
+
+ALTER TABLE disciplines ADD COLUMN IF NOT EXISTS storage_used_bytes BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE disciplines ADD COLUMN IF NOT EXISTS files_count BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE institutions ADD COLUMN IF NOT EXISTS storage_used_bytes BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE institutions ADD COLUMN IF NOT EXISTS files_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE disciplines d
+SET storage_used_bytes = s.bytes, files_count = s.files
+FROM (SELECT discipline_id, SUM(file_size) AS bytes, COUNT(*) AS files
+      FROM files WHERE status <> 'REJECTED' GROUP BY discipline_id) s
+WHERE d.id = s.discipline_id;
+
+UPDATE institutions i
+SET storage_used_bytes = s.bytes, files_count = s.files
+FROM (SELECT institution_id, SUM(file_size) AS bytes, COUNT(*) AS files
+      FROM files WHERE status <> 'REJECTED' GROUP BY institution_id) s
+WHERE i.id = s.institution_id;
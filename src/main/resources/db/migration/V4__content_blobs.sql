@@ -0,0 +1,16 @@
+-- Conteúdo deduplicado e endereçado por SHA-256, compartilhado entre arquivos.
+
+CREATE TABLE content_blobs (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sha256          VARCHAR(64)  NOT NULL,
+    size_bytes      BIGINT       NOT NULL,
+    storage_key     VARCHAR(500) NOT NULL,
+    reference_count BIGINT       NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_content_blob_sha256 UNIQUE (sha256)
+);
+
+ALTER TABLE files ADD COLUMN IF NOT EXISTS content_blob_id BIGINT;
+ALTER TABLE files ADD CONSTRAINT fk_file_content_blob FOREIGN KEY (content_blob_id) REFERENCES content_blobs (id);
+CREATE INDEX IF NOT EXISTS idx_file_content_blob ON files (content_blob_id);
@@ -0,0 +1,28 @@
+-- Sessões de upload em partes; as partes ficam no storage em uploads/{upload_id}/{índice}.
+
+CREATE TABLE upload_sessions (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    upload_id     VARCHAR(36)   NOT NULL,
+    uploaded_by   BIGINT        NOT NULL,
+    discipline_id BIGINT        NOT NULL,
+    title         VARCHAR(200)  NOT NULL,
+    file_name     VARCHAR(500)  NOT NULL,
+    file_type     VARCHAR(50)   NOT NULL CHECK (file_type IN ('PDF', 'DOC', 'DOCX', 'XLS', 'XLSX', 'PPT', 'PPTX',
+                                                             'IMG', 'JPG', 'JPEG', 'PNG', 'GIF', 'TXT')),
+    description   VARCHAR(1000),
+    version       VARCHAR(20),
+    file_size     BIGINT        NOT NULL,
+    chunk_size    INTEGER       NOT NULL,
+    total_chunks  INTEGER       NOT NULL,
+    status        VARCHAR(20)   NOT NULL CHECK (status IN ('ACTIVE', 'COMPLETED')),
+    expires_at    TIMESTAMP(6)  NOT NULL,
+    file_id       BIGINT,
+    created_at    TIMESTAMP(6)  NOT NULL,
+    updated_at    TIMESTAMP(6),
+    CONSTRAINT uk_upload_session_upload_id UNIQUE (upload_id),
+    CONSTRAINT fk_upload_session_user FOREIGN KEY (uploaded_by) REFERENCES users (id),
+    CONSTRAINT fk_upload_session_discipline FOREIGN KEY (discipline_id) REFERENCES disciplines (id),
+    CONSTRAINT fk_upload_session_file FOREIGN KEY (file_id) REFERENCES files (id)
+);
+
+CREATE INDEX idx_upload_session_expires ON upload_sessions (expires_at);
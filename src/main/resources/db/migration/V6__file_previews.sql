@@ -0,0 +1,13 @@
+-- Prévias geradas em segundo plano: miniatura (imagens) e trecho de texto (TXT e PDF).
+
+ALTER TABLE files ADD COLUMN IF NOT EXISTS preview_status VARCHAR(20) NOT NULL DEFAULT 'NOT_AVAILABLE'
+    CHECK (preview_status IN ('PENDING', 'READY', 'FAILED', 'NOT_AVAILABLE'));
+ALTER TABLE files ADD COLUMN IF NOT EXISTS thumbnail_path VARCHAR(500);
+ALTER TABLE files ADD COLUMN IF NOT EXISTS preview_text VARCHAR(1000);
+
+-- Arquivos já armazenados entram na fila; o job de retomada gera as prévias aos poucos.
+UPDATE files SET preview_status = 'PENDING'
+WHERE content_blob_id IS NOT NULL
+  AND file_type IN ('IMG', 'JPG', 'JPEG', 'PNG', 'GIF', 'TXT', 'PDF');
+
+CREATE INDEX IF NOT EXISTS idx_file_preview_pending ON files (id) WHERE preview_status = 'PENDING';
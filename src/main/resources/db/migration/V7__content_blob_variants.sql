@@ -0,0 +1,5 @@
+-- Variantes pré-comprimidas (gzip e zstd) do conteúdo, geradas uma vez na ingestão.
+
+ALTER TABLE content_blobs ADD COLUMN IF NOT EXISTS gzip_size_bytes BIGINT;
+ALTER TABLE content_blobs ADD COLUMN IF NOT EXISTS zstd_size_bytes BIGINT;
+ALTER TABLE content_blobs ADD COLUMN IF NOT EXISTS compression_checked BOOLEAN NOT NULL DEFAULT false;
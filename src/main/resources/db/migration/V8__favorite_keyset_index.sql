@@ -0,0 +1,4 @@
+-- Listagem de favoritos por cursor ordena por (created_at, file_id); o índice acompanha a ordenação.
+
+DROP INDEX IF EXISTS idx_favorite_user_created;
+CREATE INDEX idx_favorite_user_created ON favorites (user_id, created_at DESC, file_id DESC);
@@ -0,0 +1,11 @@
+-- Termos proibidos nos comentários, por instituição; armazenados normalizados (minúsculas, sem acentos).
+
+CREATE TABLE banned_terms (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    institution_id BIGINT        NOT NULL,
+    term           VARCHAR(100)  NOT NULL,
+    created_at     TIMESTAMP(6)  NOT NULL,
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT uk_banned_term_institution_term UNIQUE (institution_id, term),
+    CONSTRAINT fk_banned_term_institution FOREIGN KEY (institution_id) REFERENCES institutions (id)
+);
@@ -0,0 +1,101 @@
+package com.academicplatform.benchmark;
+
+import com.academicplatform.util.AhoCorasickMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark da moderação de comentários: autômato Aho–Corasick contra a abordagem ingênua
+ * de uma regex de palavra inteira por termo, sobre um comentário de 2.000 caracteres sem termos
+ * proibidos (pior caso: todos os termos precisam ser verificados).
+ * <p>
+ * Execução: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.academicplatform.benchmark.AhoCorasickMatcherBenchmark}
+ *
+ * @author Felipe Oliveira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AhoCorasickMatcherBenchmark {
+
+    private static final int COMMENT_LENGTH = 2000;
+
+    @Param({"10", "100", "1000"})
+    public int terms;
+
+    private String comment;
+    private AhoCorasickMatcher matcher;
+    private List<Pattern> patterns;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> banned = new ArrayList<>(terms);
+        for (int i = 0; i < terms; i++) {
+            banned.add("proibido" + word(random, 4));
+        }
+        matcher = AhoCorasickMatcher.compile(banned);
+        patterns = banned.stream()
+                .map(term -> Pattern.compile("\\b" + Pattern.quote(AhoCorasickMatcher.normalize(term)) + "\\b"))
+                .toList();
+
+        StringBuilder text = new StringBuilder(COMMENT_LENGTH + 16);
+        while (text.length() < COMMENT_LENGTH) {
+            text.append(word(random, 3 + random.nextInt(8))).append(random.nextInt(10) == 0 ? "ção " : " ");
+        }
+        comment = text.substring(0, COMMENT_LENGTH);
+    }
+
+    @Benchmark
+    public List<String> ahoCorasick() {
+        return matcher.findAll(comment);
+    }
+
+    @Benchmark
+    public List<String> regexPerTerm() {
+        String folded = AhoCorasickMatcher.normalize(comment);
+        List<String> found = new ArrayList<>();
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(folded).find()) {
+                found.add(pattern.pattern());
+            }
+        }
+        return found;
+    }
+
+    private static String word(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AhoCorasickMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
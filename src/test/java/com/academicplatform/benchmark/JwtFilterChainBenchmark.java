@@ -0,0 +1,129 @@
+package com.academicplatform.benchmark;
+
+import com.academicplatform.config.SecurityConfig;
+import com.academicplatform.entity.Institution;
+import com.academicplatform.entity.User;
+import com.academicplatform.enums.UserRole;
+import com.academicplatform.security.JwtService;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de throughput da cadeia de filtros do Spring Security configurada em SecurityConfig,
+ * sem banco: requisição autenticada por JWT (com e sem o cache de tokens validados) e requisição
+ * anônima recusada com 401. Cada invocação usa requisição e resposta novas, como o container.
+ * <p>
+ * Execução: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.academicplatform.benchmark.JwtFilterChainBenchmark}
+ *
+ * @author Felipe Oliveira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class JwtFilterChainBenchmark {
+
+    private static final String PROTECTED_PATH = "/api/files/1";
+
+    /**
+     * Capacidade do cache de tokens validados; 0 força a verificação da assinatura a cada requisição.
+     */
+    @Param({"50000", "0"})
+    public long validatedCacheSize;
+
+    private AnnotationConfigWebApplicationContext context;
+    private Filter filterChain;
+    private String authorization;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        JwtService jwtService = new JwtService(Base64.getEncoder().encodeToString(secret), 60, validatedCacheSize, 10);
+
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(BenchmarkSecurityConfig.class);
+        context.addBeanFactoryPostProcessor(beanFactory -> beanFactory.registerSingleton("jwtService", jwtService));
+        context.refresh();
+        filterChain = context.getBean("springSecurityFilterChain", Filter.class);
+
+        Institution institution = Institution.builder().build();
+        institution.setId(1L);
+        User user = User.builder().role(UserRole.STUDENT).institution(institution).build();
+        user.setId(1L);
+        authorization = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PROTECTED_PATH);
+        request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChain.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int anonymousRequestRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PROTECTED_PATH);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChain.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    /**
+     * Contexto mínimo com a configuração de segurança real; o JwtService é registrado no setup.
+     */
+    @Configuration
+    @EnableWebMvc
+    @EnableWebSecurity
+    @Import(SecurityConfig.class)
+    static class BenchmarkSecurityConfig {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterChainBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
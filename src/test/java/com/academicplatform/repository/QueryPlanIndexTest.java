@@ -0,0 +1,476 @@
+package com.academicplatform.repository;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.academicplatform.entity.Institution;
+import com.academicplatform.enums.FileType;
+import com.academicplatform.enums.PreviewStatus;
+import com.academicplatform.security.JdbcRateLimitStore;
+import com.academicplatform.support.PostgresIntegrationTest;
+import com.academicplatform.support.StatementCounter;
+import org.hibernate.type.descriptor.JdbcBindingLogging;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Verifica, via EXPLAIN, que as consultas quentes dos repositórios usam os índices das migrations
+ * e não fazem varredura sequencial nas tabelas grandes. O SQL examinado é o que o Hibernate de fato
+ * emite: cada método de repositório roda contra dados com volume suficiente para que o planejador
+ * escolha por custo, e os statements são capturados pelo {@link StatementCounter}, com os valores
+ * vinculados lidos do log de binding do Hibernate. Cada statement é então preparado e explicado com
+ * esses mesmos valores (plano customizado, como nas primeiras execuções reais). As chamadas rodam em
+ * transação revertida, para que os comandos de escrita não alterem o banco compartilhado.
+ *
+ * @author Felipe Oliveira
+ */
+class QueryPlanIndexTest extends PostgresIntegrationTest {
+
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (files|comments|favorites|users|"
+            + "content_blobs|upload_sessions|password_reset_tokens|rate_limit_buckets)\\b");
+    private static final Pattern BINDING = Pattern.compile("binding parameter \\((\\d+):[^)]*\\) <- \\[(.*)]",
+            Pattern.DOTALL);
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.now().plusYears(1);
+
+    private static Seed seed;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private ContentBlobRepository contentBlobRepository;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private InstitutionRepository institutionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BindingLog bindingLog;
+
+    @BeforeEach
+    void setUp() {
+        if (seed == null) {
+            seed = Seed.create(jdbcTemplate);
+        }
+        bindingLog = new BindingLog();
+        bindingLog.attach();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bindingLog.detach();
+    }
+
+    @Test
+    void approvedFilesByDisciplineKeysetUsesPartialIndex() {
+        List<String> plans = explainCaptured(() -> fileRepository.findApprovedFileResponsesByDisciplineAfter(
+                seed.discipline(7), FAR_FUTURE, Long.MAX_VALUE, Limit.of(21)));
+
+        assertThat(plans).singleElement().asString().contains("idx_file_approved_discipline_created");
+    }
+
+    @Test
+    void pendingFilesByInstitutionKeysetUsesPartialIndex() {
+        List<String> plans = explainCaptured(() -> fileRepository.findFirstPendingFileResponsesByInstitution(
+                seed.institution(2), Limit.of(21)));
+
+        assertThat(plans).singleElement().asString().contains("idx_file_pending_institution_created");
+    }
+
+    @Test
+    void mostDownloadedFilesByInstitutionUsesPartialIndex() {
+        List<String> plans = explainCaptured(() -> {
+            Institution institution = institutionRepository.getReferenceById(seed.institution(3));
+            fileRepository.findMostDownloadedFilesByInstitution(institution, PageRequest.of(0, 10));
+        });
+
+        assertThat(plans).singleElement().asString().contains("idx_file_approved_institution_downloads");
+    }
+
+    @Test
+    void approvedFilesByIdsUsePrimaryKey() {
+        List<Long> ids = Arrays.asList(seed.files).subList(100, 120);
+
+        List<String> plans = explainCaptured(() -> fileRepository.findApprovedFileResponsesByIds(ids));
+
+        assertThat(plans).singleElement().asString().contains("files_pkey");
+    }
+
+    @Test
+    void pendingPreviewsUsePartialIndex() {
+        List<String> plans = explainCaptured(() -> fileRepository.findIdsByPreviewStatus(PreviewStatus.PENDING,
+                Limit.of(50)));
+
+        assertThat(plans).singleElement().asString().contains("idx_file_preview_pending");
+    }
+
+    @Test
+    void activeCommentThreadNewestFirstUsesPartialIndex() {
+        List<String> plans = explainCaptured(() -> commentRepository.findNewestActiveCommentResponsesBefore(
+                seed.file(42), FAR_FUTURE, Long.MAX_VALUE, Limit.of(21)));
+
+        assertThat(plans).singleElement().asString().contains("idx_comment_file_active_created");
+    }
+
+    @Test
+    void activeCommentThreadOldestFirstUsesPartialIndex() {
+        List<String> plans = explainCaptured(() -> {
+            commentRepository.findActiveCommentResponsesByFile(seed.file(42));
+            commentRepository.findFirstOldestActiveCommentResponses(seed.file(42), Limit.of(21));
+            commentRepository.findOldestActiveCommentResponsesAfter(seed.file(42), LocalDateTime.now().minusYears(1),
+                    0L, Limit.of(21));
+        });
+
+        assertThat(plans).hasSize(3).allSatisfy(plan -> assertThat(plan).contains("idx_comment_file_active_created"));
+    }
+
+    @Test
+    void favoriteFilesByUserKeysetUsesCursorIndex() {
+        List<String> plans = explainCaptured(() -> favoriteRepository.findFavoriteFileRowsByUserAfter(
+                seed.user(11), FAR_FUTURE, Long.MAX_VALUE, Limit.of(21)));
+
+        assertThat(plans).singleElement().asString().contains("idx_favorite_user_created");
+    }
+
+    @Test
+    void favoriteInsertAndDeleteCtesUseIndexes() {
+        List<Long> fileIds = Arrays.asList(seed.files).subList(5_000, 5_010);
+
+        List<String> plans = explainCaptured(() -> {
+            favoriteRepository.insertFavorites(seed.user(11), fileIds);
+            favoriteRepository.deleteFavorites(seed.user(11), fileIds);
+        });
+
+        assertThat(plans).hasSize(2);
+        assertThat(plans.get(0)).contains("uk_favorite_user_file");
+        assertThat(plans.get(1)).contains("idx_favorite_user_created");
+    }
+
+    @Test
+    void pendingCompressionUsesPartialIndex() {
+        List<String> plans = explainCaptured(() -> contentBlobRepository.findIdsPendingCompression(
+                EnumSet.of(FileType.PDF, FileType.TXT, FileType.DOC), 64L * 1024 * 1024, Limit.of(50)));
+
+        assertThat(plans).singleElement().asString().contains("idx_content_blob_compression_pending");
+    }
+
+    @Test
+    void uploadSessionLookupsUseIndexes() {
+        List<String> plans = explainCaptured(() -> {
+            uploadSessionRepository.findByUploadId(seed.uploadId(123));
+            uploadSessionRepository.startCompletion(seed.uploadSession(123), LocalDateTime.now(),
+                    LocalDateTime.now().minusMinutes(10));
+            uploadSessionRepository.findByExpiresAtBeforeOrderByExpiresAt(LocalDateTime.now(), Limit.of(100));
+        });
+
+        assertThat(plans).hasSize(3);
+        assertThat(plans.get(0)).contains("uk_upload_session_upload_id");
+        assertThat(plans.get(1)).contains("upload_sessions_pkey");
+        assertThat(plans.get(2)).contains("idx_upload_session_expires");
+    }
+
+    @Test
+    void passwordResetTokenLookupsUseIndexes() {
+        List<String> plans = explainCaptured(() -> {
+            passwordResetTokenRepository.findByTokenHash(seed.tokenHash(77));
+            passwordResetTokenRepository.deleteExpiredBatch(LocalDateTime.now(), 500);
+        });
+
+        assertThat(plans).hasSize(2);
+        assertThat(plans.get(0)).contains("uk_password_reset_token_hash");
+        assertThat(plans.get(1)).contains("idx_password_reset_token_expires");
+    }
+
+    @Test
+    void rateLimitPurgeUsesRefillIndex() {
+        JdbcTemplate captured = spy(jdbcTemplate);
+
+        inRolledBackTransaction(() -> new JdbcRateLimitStore(captured, 60).purgeIdle());
+
+        Invocation purge = mockingDetails(captured).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("update"))
+                .findFirst().orElseThrow();
+        Object[] arguments = purge.getArguments();
+        List<String> parameters = Arrays.stream(arguments, 1, arguments.length).map(String::valueOf).toList();
+        String plan = explain(new CapturedStatement((String) arguments[0], parameters));
+
+        assertThat(plan).contains("idx_rate_limit_bucket_refilled");
+    }
+
+    /**
+     * Executa as chamadas capturando os statements preparados pelo Hibernate e devolve o plano de cada um,
+     * falhando se algum fizer varredura sequencial em uma das tabelas grandes.
+     */
+    private List<String> explainCaptured(Runnable calls) {
+        StatementCounter.reset();
+        bindingLog.clear();
+        inRolledBackTransaction(calls);
+
+        List<String> sql = StatementCounter.statements();
+        assertThat(sql).as("statements capturados").isNotEmpty();
+        List<String> plans = new ArrayList<>();
+        for (int i = 0; i < sql.size(); i++) {
+            plans.add(explain(new CapturedStatement(sql.get(i), bindingLog.values(i))));
+        }
+        return plans;
+    }
+
+    private void inRolledBackTransaction(Runnable calls) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            calls.run();
+            status.setRollbackOnly();
+        });
+    }
+
+    /**
+     * Prepara o statement com parâmetros posicionais e explica a execução com os valores capturados.
+     */
+    private String explain(CapturedStatement statement) {
+        String positional = statement.positionalSql();
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            List<String> lines = new ArrayList<>();
+            try (Statement sql = connection.createStatement()) {
+                sql.execute("SET plan_cache_mode = force_custom_plan");
+                sql.execute("PREPARE captured AS " + positional);
+                try (ResultSet rs = sql.executeQuery("EXPLAIN EXECUTE captured" + statement.arguments())) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                } finally {
+                    sql.execute("DEALLOCATE captured");
+                    sql.execute("RESET plan_cache_mode");
+                }
+            }
+            return String.join("\n", lines);
+        });
+
+        assertThat(SEQ_SCAN.matcher(plan).find())
+                .as("varredura sequencial em tabela grande.%nSQL: %s%nPlano:%n%s", statement.sql(), plan)
+                .isFalse();
+        return plan;
+    }
+
+    /**
+     * SQL capturado com os valores vinculados, na ordem dos parâmetros.
+     */
+    private record CapturedStatement(String sql, List<String> parameters) {
+
+        /**
+         * Troca os "?" do JDBC (fora de literais) por $1, $2... para uso em PREPARE.
+         */
+        String positionalSql() {
+            StringBuilder result = new StringBuilder();
+            boolean quoted = false;
+            int position = 0;
+            for (char c : sql.toCharArray()) {
+                if (c == '\'') {
+                    quoted = !quoted;
+                }
+                if (c == '?' && !quoted) {
+                    result.append('$').append(++position);
+                } else {
+                    result.append(c);
+                }
+            }
+            assertThat(parameters).as("valores vinculados de %s", sql).hasSize(position);
+            return result.toString();
+        }
+
+        String arguments() {
+            if (parameters.isEmpty()) {
+                return "";
+            }
+            return parameters.stream()
+                    .map(value -> value == null ? "NULL" : "'" + value.replace("'", "''") + "'")
+                    .collect(Collectors.joining(", ", "(", ")"));
+        }
+    }
+
+    /**
+     * Lê os valores vinculados pelo Hibernate do log de binding, associando-os ao statement em preparação
+     * na thread do teste.
+     */
+    private static final class BindingLog extends AppenderBase<ILoggingEvent> {
+
+        private final Thread owner = Thread.currentThread();
+        private final Map<Integer, SortedMap<Integer, String>> values = new HashMap<>();
+        private final Logger logger = (Logger) LoggerFactory.getLogger(JdbcBindingLogging.NAME);
+        private Level previousLevel;
+        private boolean previousAdditive;
+
+        void attach() {
+            previousLevel = logger.getLevel();
+            previousAdditive = logger.isAdditive();
+            setContext(logger.getLoggerContext());
+            start();
+            logger.addAppender(this);
+            logger.setAdditive(false);
+            logger.setLevel(Level.TRACE);
+        }
+
+        void detach() {
+            logger.setLevel(previousLevel);
+            logger.setAdditive(previousAdditive);
+            logger.detachAppender(this);
+            stop();
+        }
+
+        void clear() {
+            values.clear();
+        }
+
+        List<String> values(int statement) {
+            return new ArrayList<>(values.getOrDefault(statement, new TreeMap<>()).values());
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (Thread.currentThread() != owner) {
+                return;
+            }
+            Matcher binding = BINDING.matcher(event.getFormattedMessage());
+            if (binding.matches()) {
+                String value = binding.group(2);
+                values.computeIfAbsent(StatementCounter.count() - 1, statement -> new TreeMap<>())
+                        .put(Integer.valueOf(binding.group(1)), "null".equals(value) ? null : value);
+            }
+        }
+    }
+
+    /**
+     * Volume inserido uma única vez no banco compartilhado, com códigos e emails próprios: 5 instituições,
+     * 50 disciplinas, 20 mil usuários, 20 mil arquivos (5% pendentes, 5% rejeitados), 20 mil comentários
+     * (10% inativos), 20 mil favoritos e 5 mil conteúdos, sessões de upload, tokens de recuperação e buckets
+     * de rate limit, seguido de ANALYZE. Nada fica expirado, pendente de prévia ou de compressão, para que
+     * os jobs agendados e os demais testes não sejam afetados.
+     */
+    private record Seed(Long[] institutions, Long[] disciplines, Long[] users, Long[] files, Long[] uploadSessions,
+                        String run) {
+
+        static Seed create(JdbcTemplate jdbc) {
+            String run = UUID.randomUUID().toString().substring(0, 8);
+            Long[] institutions = ids(jdbc, "INSERT INTO institutions (name, code, plan, max_users, max_storagegb, "
+                    + "active, created_at) SELECT 'Instituição QP ' || ? || '-' || g, 'QP' || ? || '-' || g, "
+                    + "'PREMIUM', 1000, 100, true, now() FROM generate_series(1, 5) g RETURNING id", run, run);
+            Long[] disciplines = ids(jdbc, "INSERT INTO disciplines (name, code, institution_id, active, created_at) "
+                    + "SELECT 'Disciplina QP ' || g, 'QP' || g, (?::bigint[])[g % 5 + 1], true, now() "
+                    + "FROM generate_series(1, 50) g RETURNING id", (Object) institutions);
+            Long[] users = ids(jdbc, "INSERT INTO users (name, email, password, role, institution_id, active, created_at) "
+                    + "SELECT 'Usuário QP ' || g, 'qp' || g || '-' || ? || '@plan.test', 'x', 'STUDENT', "
+                    + "(?::bigint[])[g % 5 + 1], true, now() FROM generate_series(1, 20000) g RETURNING id",
+                    run, institutions);
+            Long[] blobs = ids(jdbc, "INSERT INTO content_blobs (sha256, size_bytes, storage_key, reference_count, "
+                    + "compression_checked, created_at) SELECT md5(? || g) || md5(g || ?), 1024, 'qp/' || ? || '/' || g, "
+                    + "1, true, now() FROM generate_series(1, 5000) g RETURNING id", run, run, run);
+            Long[] files = ids(jdbc, "INSERT INTO files (title, file_name, file_type, file_size, discipline_id, "
+                    + "institution_id, uploaded_by, status, download_count, content_blob_id, created_at) "
+                    + "SELECT 'Arquivo QP ' || g, 'arquivo' || g || '.pdf', 'PDF', 1024, (?::bigint[])[g % 50 + 1], "
+                    + "(?::bigint[])[(g % 50) % 5 + 1], (?::bigint[])[g % 20000 + 1], "
+                    + "CASE WHEN g % 20 = 0 THEN 'PENDING' WHEN g % 20 = 1 THEN 'REJECTED' ELSE 'APPROVED' END, "
+                    + "g % 1000, (?::bigint[])[g], now() - (g || ' minutes')::interval "
+                    + "FROM generate_series(1, 20000) g ORDER BY g RETURNING id",
+                    disciplines, institutions, users, blobs);
+            jdbc.update("INSERT INTO comments (content, user_id, file_id, active, created_at) "
+                    + "SELECT 'Comentário ' || g, (?::bigint[])[g % 20000 + 1], (?::bigint[])[g % 2000 + 1], "
+                    + "g % 10 <> 0, now() - (g || ' seconds')::interval FROM generate_series(1, 20000) g",
+                    users, files);
+            jdbc.update("INSERT INTO favorites (user_id, file_id, created_at) "
+                    + "SELECT (?::bigint[])[g % 2000 + 1], (?::bigint[])[g], now() - (g || ' seconds')::interval "
+                    + "FROM generate_series(1, 20000) g", users, files);
+            Long[] uploadSessions = ids(jdbc, "INSERT INTO upload_sessions (upload_id, uploaded_by, discipline_id, "
+                    + "title, file_name, file_type, file_size, chunk_size, total_chunks, status, expires_at, created_at) "
+                    + "SELECT ? || '-' || g, (?::bigint[])[g % 20000 + 1], (?::bigint[])[g % 50 + 1], 'Upload ' || g, "
+                    + "'upload' || g || '.pdf', 'PDF', 1024, 1024, 1, 'ACTIVE', now() + (g || ' minutes')::interval, "
+                    + "now() FROM generate_series(1, 5000) g ORDER BY g RETURNING id", run, users, disciplines);
+            jdbc.update("INSERT INTO password_reset_tokens (user_id, token_hash, expires_at, created_at) "
+                    + "SELECT (?::bigint[])[g % 20000 + 1], md5('qp-token-' || ? || '-' || g), "
+                    + "now() + (g || ' minutes')::interval, now() FROM generate_series(1, 5000) g", users, run);
+            jdbc.update("INSERT INTO rate_limit_buckets (bucket_key, tokens, refilled_at) "
+                    + "SELECT 'qp:' || ? || ':' || g, 1, now() - ((g % 3000) || ' seconds')::interval "
+                    + "FROM generate_series(1, 5000) g", run);
+            jdbc.execute("ANALYZE");
+            return new Seed(institutions, disciplines, users, files, uploadSessions, run);
+        }
+
+        private static Long[] ids(JdbcTemplate jdbc, String sql, Object... args) {
+            return jdbc.queryForList(sql, Long.class, args).toArray(Long[]::new);
+        }
+
+        long institution(int index) {
+            return institutions[index];
+        }
+
+        long discipline(int index) {
+            return disciplines[index];
+        }
+
+        long user(int index) {
+            return users[index];
+        }
+
+        long file(int index) {
+            return files[index];
+        }
+
+        long uploadSession(int index) {
+            return uploadSessions[index];
+        }
+
+        String uploadId(int index) {
+            return run + "-" + (index + 1);
+        }
+
+        String tokenHash(int index) {
+            return DigestUtils.md5DigestAsHex(("qp-token-" + run + "-" + (index + 1)).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.academicplatform.security;
+
+import com.academicplatform.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes do store JDBC de rate limit: chaves de qualquer tamanho viram buckets de chave fixa
+ * e a limpeza remove apenas os buckets inativos.
+ *
+ * @author Felipe Oliveira
+ */
+class JdbcRateLimitStoreTest extends PostgresIntegrationTest {
+
+    private static final Duration REFILL = Duration.ofHours(1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new JdbcRateLimitStore(jdbcTemplate, 60);
+    }
+
+    @Test
+    void oversizedKeysAreStoredAsFixedLengthHashes() {
+        String prefix = "reset:email:" + "a".repeat(500) + UUID.randomUUID();
+
+        assertThat(store.tryConsume(prefix + "@x.test", 1, REFILL)).isTrue();
+        assertThat(store.tryConsume(prefix + "@x.test", 1, REFILL)).isFalse();
+        assertThat(store.tryConsume(prefix + "@y.test", 1, REFILL)).isTrue();
+
+        Integer keyLength = jdbcTemplate.queryForObject(
+                "SELECT length(bucket_key) FROM rate_limit_buckets WHERE bucket_key = ?",
+                Integer.class, JdbcRateLimitStore.hash(prefix + "@x.test"));
+        assertThat(keyLength).isEqualTo(64);
+    }
+
+    @Test
+    void purgeRemovesOnlyIdleBuckets() {
+        String idle = "purge:idle:" + UUID.randomUUID();
+        String recent = "purge:recent:" + UUID.randomUUID();
+        assertThat(store.tryConsume(idle, 5, REFILL)).isTrue();
+        assertThat(store.tryConsume(recent, 5, REFILL)).isTrue();
+        jdbcTemplate.update("UPDATE rate_limit_buckets SET refilled_at = refilled_at - interval '61 minutes' "
+                + "WHERE bucket_key = ?", JdbcRateLimitStore.hash(idle));
+
+        assertThat(store.purgeIdle()).isGreaterThanOrEqualTo(1);
+
+        assertThat(bucketExists(idle)).isFalse();
+        assertThat(bucketExists(recent)).isTrue();
+    }
+
+    private boolean bucketExists(String key) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM rate_limit_buckets WHERE bucket_key = ?",
+                Integer.class, JdbcRateLimitStore.hash(key)) > 0;
+    }
+}
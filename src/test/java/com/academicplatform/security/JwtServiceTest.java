@@ -0,0 +1,59 @@
+package com.academicplatform.security;
+
+import com.academicplatform.entity.Institution;
+import com.academicplatform.entity.User;
+import com.academicplatform.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Testes da emissão e validação de tokens e da exigência de chave de no mínimo 256 bits.
+ *
+ * @author Felipe Oliveira
+ */
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @Test
+    void missingSecretFailsAtStartup() {
+        assertThatThrownBy(() -> jwtService(""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("não configurada");
+    }
+
+    @Test
+    void secretShorterThan256BitsFailsAtStartup() {
+        assertThatThrownBy(() -> jwtService(Base64.getEncoder().encodeToString(new byte[31])))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("256 bits");
+    }
+
+    @Test
+    void issuedTokenAuthenticatesWithClaimsAndForeignKeyIsRejected() {
+        JwtService jwtService = jwtService(SECRET);
+        Institution institution = Institution.builder().build();
+        institution.setId(7L);
+        User user = User.builder().role(UserRole.TEACHER).institution(institution).build();
+        user.setId(42L);
+
+        String token = jwtService.generateToken(user);
+
+        assertThat(jwtService.authenticate(token)).hasValueSatisfying(principal -> {
+            assertThat(principal.userId()).isEqualTo(42L);
+            assertThat(principal.role()).isEqualTo(UserRole.TEACHER);
+            assertThat(principal.institutionId()).isEqualTo(7L);
+        });
+        byte[] otherKey = new byte[32];
+        otherKey[0] = 1;
+        assertThat(jwtService(Base64.getEncoder().encodeToString(otherKey)).authenticate(token)).isEmpty();
+    }
+
+    private static JwtService jwtService(String secret) {
+        return new JwtService(secret, 60, 1000, 10);
+    }
+}
@@ -0,0 +1,215 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.response.CommentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Testes do stream de comentários com emitters simulados: um cliente que não lê o socket bloqueia
+ * o envio segurando o lock de escrita do emitter, como a escrita real no container.
+ *
+ * @author Felipe Oliveira
+ */
+class CommentStreamServiceTest {
+
+    private static final long FILE_ID = 1L;
+    private static final Duration NON_BLOCKING = Duration.ofSeconds(2);
+
+    private final List<TestEmitter> emitters = new ArrayList<>();
+    private CommentStreamService service;
+
+    @AfterEach
+    void tearDown() {
+        emitters.forEach(TestEmitter::release);
+        service.shutdown();
+    }
+
+    @Test
+    void fullQueueClosesSlowSubscriberWithoutBlockingPublisher() throws Exception {
+        service = new CommentStreamService(1, 2, 60_000, this::newEmitter);
+        service.subscribe(FILE_ID);
+        TestEmitter slow = emitters.get(0);
+        slow.blockSends();
+
+        publish(1L);
+        assertThat(slow.sendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        publish(2L);
+        publish(3L);
+        // A quarta mensagem não cabe na fila (capacidade 2, uma em envio): a conexão é fechada.
+        assertTimeoutPreemptively(NON_BLOCKING, () -> publish(4L));
+
+        assertThat(service.getSubscriberCount(FILE_ID)).isZero();
+        assertThat(slow.completion.getCount()).isEqualTo(1);
+
+        slow.release();
+        assertThat(slow.completion.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.error).isInstanceOf(IOException.class);
+        assertThat(slow.sent).containsExactly(1L);
+        assertThat(slow.interrupted).isFalse();
+    }
+
+    @Test
+    void stalledSendIsDroppedWithoutInterruptingTheSender() throws Exception {
+        service = new CommentStreamService(1, 8, 50, this::newEmitter);
+        service.subscribe(FILE_ID);
+        TestEmitter stalled = emitters.get(0);
+        stalled.blockSends();
+
+        publish(1L);
+        assertThat(stalled.sendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        assertTimeoutPreemptively(NON_BLOCKING, () -> service.dropStalledSenders());
+
+        assertThat(service.getSubscriberCount(FILE_ID)).isZero();
+        stalled.release();
+        assertThat(stalled.completion.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stalled.error).hasMessageContaining("Timeout de envio");
+        assertThat(stalled.interrupted).isFalse();
+
+        // O mesmo pool volta a atender um novo visualizador.
+        service.subscribe(FILE_ID);
+        TestEmitter next = emitters.get(1);
+        publish(2L);
+        next.awaitSent(1);
+        assertThat(next.sent).containsExactly(2L);
+    }
+
+    @Test
+    void registryEmptiesWhenClientsUnsubscribe() throws Exception {
+        service = new CommentStreamService(2, 8, 60_000, this::newEmitter);
+        service.subscribe(FILE_ID);
+        service.subscribe(FILE_ID);
+        service.subscribe(FILE_ID);
+        assertThat(service.getSubscriberCount(FILE_ID)).isEqualTo(3);
+
+        emitters.get(0).completionCallback.run();
+        emitters.get(1).timeoutCallback.run();
+        assertThat(service.getSubscriberCount(FILE_ID)).isEqualTo(1);
+
+        publish(1L);
+        emitters.get(2).awaitSent(1);
+        assertThat(emitters.get(0).sent).isEmpty();
+        assertThat(emitters.get(1).sent).isEmpty();
+
+        emitters.get(2).errorCallback.accept(new IOException("Broken pipe"));
+        assertThat(service.getSubscriberCount(FILE_ID)).isZero();
+    }
+
+    private void publish(Long commentId) {
+        service.commentCreated(CommentResponse.builder().id(commentId).fileId(FILE_ID).content("comentário").build());
+    }
+
+    private SseEmitter newEmitter() {
+        TestEmitter emitter = new TestEmitter();
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    /**
+     * Emitter sem container: registra os eventos enviados e os callbacks, e pode bloquear o envio
+     * segurando o lock de escrita até ser liberado.
+     */
+    private static final class TestEmitter extends SseEmitter {
+
+        private static final Pattern EVENT_ID = Pattern.compile("(?m)^id:(\\d+)$");
+
+        private final List<Long> sent = new ArrayList<>();
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch completion = new CountDownLatch(1);
+        private volatile CountDownLatch unblock = new CountDownLatch(0);
+        private volatile boolean interrupted;
+        private volatile Throwable error;
+        private Runnable completionCallback;
+        private Runnable timeoutCallback;
+        private Consumer<Throwable> errorCallback;
+
+        void blockSends() {
+            unblock = new CountDownLatch(1);
+        }
+
+        void release() {
+            unblock.countDown();
+        }
+
+        void awaitSent(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sentCount() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(sentCount()).isEqualTo(count);
+        }
+
+        private int sentCount() {
+            synchronized (sent) {
+                return sent.size();
+            }
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writeLock.lock();
+            try {
+                sendStarted.countDown();
+                if (!unblock.await(10, TimeUnit.SECONDS)) {
+                    throw new IOException("Envio não liberado");
+                }
+                StringBuilder text = new StringBuilder();
+                builder.build().forEach(part -> text.append(part.getData()));
+                Matcher id = EVENT_ID.matcher(text);
+                if (id.find()) {
+                    synchronized (sent) {
+                        sent.add(Long.valueOf(id.group(1)));
+                    }
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void complete() {
+            super.complete();
+            completion.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            super.completeWithError(ex);
+            error = ex;
+            completion.countDown();
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            completionCallback = callback;
+        }
+
+        @Override
+        public void onTimeout(Runnable callback) {
+            timeoutCallback = callback;
+        }
+
+        @Override
+        public void onError(Consumer<Throwable> callback) {
+            errorCallback = callback;
+        }
+    }
+}
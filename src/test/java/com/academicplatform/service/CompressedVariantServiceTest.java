@@ -0,0 +1,72 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.request.FileRequest;
+import com.academicplatform.dto.response.FileResponse;
+import com.academicplatform.enums.ContentEncoding;
+import com.academicplatform.enums.FileType;
+import com.academicplatform.storage.FileDownload;
+import com.academicplatform.support.PostgresIntegrationTest;
+import com.academicplatform.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes das variantes comprimidas: geradas em segundo plano após o commit do upload.
+ *
+ * @author Felipe Oliveira
+ */
+class CompressedVariantServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void variantsAreGeneratedAfterCommit() throws Exception {
+        byte[] content = ("linha de texto compressível " + UUID.randomUUID() + "\n").repeat(2000).getBytes();
+        FileResponse file = createFile(content);
+
+        awaitCompressionChecked(file.getId());
+
+        FileDownload download = fileService.openDownload(file.getId(), null, "gzip, zstd");
+        assertThat(download.getContentEncoding()).isEqualTo(ContentEncoding.ZSTD);
+        assertThat(download.getTotalSize()).isLessThan(content.length);
+    }
+
+    private void awaitCompressionChecked(Long fileId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Boolean checked = jdbcTemplate.queryForObject("SELECT b.compression_checked FROM files f "
+                    + "JOIN content_blobs b ON b.id = f.content_blob_id WHERE f.id = ?", Boolean.class, fileId);
+            if (Boolean.TRUE.equals(checked)) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Variantes do arquivo " + fileId + " não foram geradas");
+    }
+
+    private FileResponse createFile(byte[] content) {
+        TestData data = new TestData(jdbcTemplate);
+        long institutionId = data.institution();
+        long disciplineId = data.discipline(institutionId);
+        long userId = data.user(institutionId);
+        FileRequest request = FileRequest.builder()
+                .title("Notas")
+                .fileName("notas.txt")
+                .fileType(FileType.TXT)
+                .fileSize((long) content.length)
+                .disciplineId(disciplineId)
+                .build();
+        return fileService.create(request, userId, Channels.newChannel(new ByteArrayInputStream(content)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.request.FileRequest;
+import com.academicplatform.dto.response.FileResponse;
+import com.academicplatform.enums.FileType;
+import com.academicplatform.repository.ContentBlobRepository;
+import com.academicplatform.storage.StorageService;
+import com.academicplatform.support.PostgresIntegrationTest;
+import com.academicplatform.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes do ciclo de vida dos conteúdos deduplicados: descarte em rollback e coleta dos sem referência.
+ *
+ * @author Felipe Oliveira
+ */
+class ContentBlobServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ContentBlobService contentBlobService;
+
+    @Autowired
+    private ContentBlobRepository contentBlobRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rollbackDiscardsNewlyStoredContent() throws Exception {
+        byte[] content = uniqueContent();
+        String key = keyOf(content);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            contentBlobService.ingest(channelOf(content));
+            assertThat(storageService.exists(key)).isTrue();
+            status.setRollbackOnly();
+        });
+
+        assertThat(storageService.exists(key)).isFalse();
+        assertThat(contentBlobRepository.findBySha256(sha256(content))).isEmpty();
+    }
+
+    @Test
+    void collectionRemovesOnlyContentWithoutFiles() throws Exception {
+        byte[] orphan = uniqueContent();
+        byte[] used = uniqueContent();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                contentBlobService.ingest(channelOf(orphan)));
+        FileResponse file = createFile(used);
+
+        contentBlobService.collectUnreferenced();
+
+        assertThat(contentBlobRepository.findBySha256(sha256(orphan))).isEmpty();
+        assertThat(storageService.exists(keyOf(orphan))).isFalse();
+        assertThat(contentBlobRepository.findBySha256(sha256(used)))
+                .hasValueSatisfying(blob -> assertThat(blob.getReferenceCount()).isEqualTo(1));
+        assertThat(storageService.exists(keyOf(used))).isTrue();
+        assertThat(file.getContentAvailable()).isTrue();
+    }
+
+    private FileResponse createFile(byte[] content) {
+        TestData data = new TestData(jdbcTemplate);
+        long institutionId = data.institution();
+        long disciplineId = data.discipline(institutionId);
+        long userId = data.user(institutionId);
+        FileRequest request = FileRequest.builder()
+                .title("Notas")
+                .fileName("notas.txt")
+                .fileType(FileType.TXT)
+                .fileSize((long) content.length)
+                .disciplineId(disciplineId)
+                .build();
+        return fileService.create(request, userId, channelOf(content));
+    }
+
+    private static byte[] uniqueContent() {
+        return ("conteúdo " + UUID.randomUUID()).getBytes();
+    }
+
+    private static ReadableByteChannel channelOf(byte[] content) {
+        return Channels.newChannel(new ByteArrayInputStream(content));
+    }
+
+    private static String keyOf(byte[] content) throws Exception {
+        String hash = sha256(content);
+        return "blobs/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
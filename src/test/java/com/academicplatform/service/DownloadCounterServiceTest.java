@@ -0,0 +1,129 @@
+package com.academicplatform.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes do contador de downloads write-behind, sem banco: o batch JDBC é capturado por um JdbcTemplate simulado.
+ *
+ * @author Felipe Oliveira
+ */
+class DownloadCounterServiceTest {
+
+    private static final int FILES = 10;
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private DownloadCounterService downloadCounterService;
+    private final Map<Long, Long> written = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        doAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            batch.forEach(args -> written.merge((Long) args[1], (Long) args[0], Long::sum));
+            return new int[batch.size()];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        downloadCounterService = new DownloadCounterService(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void concurrentIncrementsAreFlushedExactlyOnce() throws Exception {
+        int threads = 8;
+        int downloadsPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean recording = new AtomicBoolean(true);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (recording.get()) {
+                    downloadCounterService.flush();
+                }
+            });
+            Future<?>[] recorders = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                recorders[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < downloadsPerThread; i++) {
+                        downloadCounterService.record((long) (i % FILES));
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> recorder : recorders) {
+                recorder.get(30, TimeUnit.SECONDS);
+            }
+            recording.set(false);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        downloadCounterService.flush();
+
+        long perFile = (long) threads * downloadsPerThread / FILES;
+        for (long fileId = 0; fileId < FILES; fileId++) {
+            assertThat(written.get(fileId)).isEqualTo(perFile);
+        }
+        assertThat(downloadCounterService.getPendingDelta()).isZero();
+        assertThat(downloadCounterService.getFlushedTotal()).isEqualTo((long) threads * downloadsPerThread);
+    }
+
+    @Test
+    void failedBatchIsRolledBackAndRewrittenOnNextFlush() {
+        downloadCounterService.record(1L);
+        downloadCounterService.record(1L);
+        downloadCounterService.record(2L);
+        doThrow(new DataAccessResourceFailureException("conexão perdida"))
+                .doAnswer(invocation -> {
+                    List<Object[]> batch = invocation.getArgument(1);
+                    batch.forEach(args -> written.merge((Long) args[1], (Long) args[0], Long::sum));
+                    return new int[batch.size()];
+                })
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        downloadCounterService.flush();
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertThat(written).isEmpty();
+        assertThat(downloadCounterService.pendingFor(1L)).isEqualTo(2);
+        assertThat(downloadCounterService.pendingFor(2L)).isEqualTo(1);
+
+        downloadCounterService.record(1L);
+        downloadCounterService.flush();
+
+        assertThat(written).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 3L, 2L, 1L));
+        assertThat(downloadCounterService.getPendingDelta()).isZero();
+        assertThat(downloadCounterService.getFlushedTotal()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,77 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.response.FileResponse;
+import com.academicplatform.support.PostgresIntegrationTest;
+import com.academicplatform.support.StatementCounter;
+import com.academicplatform.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que a listagem de favoritos é montada por uma única consulta com join,
+ * sem buscar cada arquivo favoritado separadamente.
+ *
+ * @author Felipe Oliveira
+ */
+class FavoriteListingQueryCountTest extends PostgresIntegrationTest {
+
+    private static final int FEW = 3;
+    private static final int MANY = 60;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestData data;
+    private long disciplineId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbcTemplate);
+        long institutionId = data.institution();
+        disciplineId = data.discipline(institutionId);
+        userId = data.user(institutionId);
+        data.files(disciplineId, institutionId, userId, "APPROVED", MANY);
+    }
+
+    @Test
+    void favoritesStatementCountDoesNotGrowWithFavorites() {
+        data.favorites(userId, disciplineId, FEW);
+        int few = countStatements(() -> favoriteService.findByUser(userId), FEW);
+
+        data.favorites(userId, disciplineId, MANY - FEW);
+        int many = countStatements(() -> favoriteService.findByUser(userId), MANY);
+
+        assertThat(many).isEqualTo(few);
+        assertThat(many).isBetween(1, 2);
+    }
+
+    @Test
+    void favoritesPageStatementCountDoesNotGrowWithPageSize() {
+        data.favorites(userId, disciplineId, MANY);
+
+        int small = countStatements(() -> favoriteService.findByUser(userId, null, FEW).getContent(), FEW);
+        int large = countStatements(() -> favoriteService.findByUser(userId, null, MANY).getContent(), MANY);
+
+        assertThat(large).isEqualTo(small);
+        assertThat(large).isBetween(1, 2);
+    }
+
+    private static int countStatements(Supplier<List<FileResponse>> listing, int expectedSize) {
+        StatementCounter.reset();
+        List<FileResponse> files = listing.get();
+        int statements = StatementCounter.count();
+        assertThat(files).hasSize(expectedSize);
+        return statements;
+    }
+}
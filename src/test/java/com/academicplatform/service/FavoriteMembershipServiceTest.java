@@ -0,0 +1,101 @@
+package com.academicplatform.service;
+
+import com.academicplatform.support.PostgresIntegrationTest;
+import com.academicplatform.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes do bitmap de favoritos: carga sob demanda do banco e aplicação das mutações somente após o commit.
+ *
+ * @author Felipe Oliveira
+ */
+class FavoriteMembershipServiceTest extends PostgresIntegrationTest {
+
+    private static final int FILES = 5;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private FavoriteMembershipService favoriteMembershipService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TestData data;
+    private long disciplineId;
+    private long userId;
+    private List<Long> fileIds;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbcTemplate);
+        long institutionId = data.institution();
+        disciplineId = data.discipline(institutionId);
+        userId = data.user(institutionId);
+        data.files(disciplineId, institutionId, userId, "APPROVED", FILES);
+        fileIds = jdbcTemplate.queryForList("SELECT id FROM files WHERE discipline_id = ? ORDER BY id",
+                Long.class, disciplineId);
+    }
+
+    @Test
+    void bitmapIsLoadedLazilyFromExistingFavorites() {
+        data.favorites(userId, disciplineId, 2);
+
+        assertThat(favoriteService.isFavorite(fileIds.get(0), userId)).isTrue();
+        assertThat(favoriteService.isFavorite(fileIds.get(1), userId)).isTrue();
+        assertThat(favoriteService.isFavorite(fileIds.get(2), userId)).isFalse();
+        assertThat(favoriteService.findFavoritedFileIds(userId, fileIds)).containsExactly(fileIds.get(0), fileIds.get(1));
+
+        // Com o bitmap em cache, escritas que não passam pelo service só aparecem após invalidar.
+        data.favorites(userId, disciplineId, 1);
+        assertThat(favoriteService.isFavorite(fileIds.get(2), userId)).isFalse();
+        favoriteMembershipService.invalidate(userId);
+        assertThat(favoriteService.isFavorite(fileIds.get(2), userId)).isTrue();
+    }
+
+    @Test
+    void additionsAndRemovalsAreAppliedOnlyAfterCommit() {
+        assertThat(favoriteService.isFavorite(fileIds.get(0), userId)).isFalse();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            favoriteService.addFavorites(userId, fileIds.subList(0, 3));
+            assertThat(favoriteMembershipService.contains(userId, fileIds.get(0))).isFalse();
+        });
+        assertThat(favoriteService.findFavoritedFileIds(userId, fileIds)).containsExactlyElementsOf(fileIds.subList(0, 3));
+
+        transaction.executeWithoutResult(status -> {
+            favoriteService.removeFavorites(userId, List.of(fileIds.get(1)));
+            assertThat(favoriteMembershipService.contains(userId, fileIds.get(1))).isTrue();
+        });
+        assertThat(favoriteService.isFavorite(fileIds.get(1), userId)).isFalse();
+        assertThat(favoriteService.findFavoritedFileIds(userId, fileIds)).containsExactly(fileIds.get(0), fileIds.get(2));
+    }
+
+    @Test
+    void rolledBackAdditionIsNotApplied() {
+        assertThat(favoriteService.isFavorite(fileIds.get(0), userId)).isFalse();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            favoriteService.addFavorites(userId, List.of(fileIds.get(0)));
+            status.setRollbackOnly();
+        });
+
+        assertThat(favoriteService.isFavorite(fileIds.get(0), userId)).isFalse();
+        favoriteMembershipService.invalidate(userId);
+        assertThat(favoriteService.isFavorite(fileIds.get(0), userId)).isFalse();
+    }
+}
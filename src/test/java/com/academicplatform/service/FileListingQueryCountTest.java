@@ -0,0 +1,92 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.response.FileResponse;
+import com.academicplatform.enums.TotalCountMode;
+import com.academicplatform.support.PostgresIntegrationTest;
+import com.academicplatform.support.StatementCounter;
+import com.academicplatform.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que as listagens de arquivos executam uma quantidade fixa de statements,
+ * independentemente de quantos arquivos são retornados (sem N+1).
+ *
+ * @author Felipe Oliveira
+ */
+class FileListingQueryCountTest extends PostgresIntegrationTest {
+
+    private static final int FEW = 3;
+    private static final int MANY = 60;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestData data;
+    private long institutionId;
+    private long disciplineId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbcTemplate);
+        institutionId = data.institution();
+        disciplineId = data.discipline(institutionId);
+        userId = data.user(institutionId);
+    }
+
+    @Test
+    void approvedListingStatementCountDoesNotGrowWithFiles() {
+        data.files(disciplineId, institutionId, userId, "APPROVED", FEW);
+        int few = countStatements(() -> fileService.findApprovedByDiscipline(disciplineId), FEW);
+
+        data.files(disciplineId, institutionId, userId, "APPROVED", MANY - FEW);
+        int many = countStatements(() -> fileService.findApprovedByDiscipline(disciplineId), MANY);
+
+        assertThat(many).isEqualTo(few);
+        assertThat(many).isBetween(1, 2);
+    }
+
+    @Test
+    void pendingListingStatementCountDoesNotGrowWithFiles() {
+        data.files(disciplineId, institutionId, userId, "PENDING", FEW);
+        int few = countStatements(() -> fileService.findPendingByInstitution(institutionId), FEW);
+
+        data.files(disciplineId, institutionId, userId, "PENDING", MANY - FEW);
+        int many = countStatements(() -> fileService.findPendingByInstitution(institutionId), MANY);
+
+        assertThat(many).isEqualTo(few);
+        assertThat(many).isBetween(1, 2);
+    }
+
+    @Test
+    void approvedPageStatementCountDoesNotGrowWithPageSize() {
+        data.files(disciplineId, institutionId, userId, "APPROVED", MANY);
+
+        int small = countStatements(() -> fileService.findApprovedByDiscipline(
+                disciplineId, null, FEW, TotalCountMode.NONE).getContent(), FEW);
+        int large = countStatements(() -> fileService.findApprovedByDiscipline(
+                disciplineId, null, MANY, TotalCountMode.NONE).getContent(), MANY);
+
+        assertThat(large).isEqualTo(small);
+        assertThat(large).isBetween(1, 2);
+    }
+
+    private static int countStatements(Supplier<List<FileResponse>> listing, int expectedSize) {
+        StatementCounter.reset();
+        List<FileResponse> files = listing.get();
+        int statements = StatementCounter.count();
+        assertThat(files).hasSize(expectedSize);
+        return statements;
+    }
+}
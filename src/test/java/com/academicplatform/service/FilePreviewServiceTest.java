@@ -0,0 +1,120 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.File;
+import com.academicplatform.enums.FileType;
+import com.academicplatform.enums.PreviewStatus;
+import com.academicplatform.repository.FileRepository;
+import com.academicplatform.storage.LocalFileSystemStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes da geração de miniaturas, sem banco: storage local em diretório temporário e repositório simulado.
+ *
+ * @author Felipe Oliveira
+ */
+class FilePreviewServiceTest {
+
+    private static final long FILE_ID = 1L;
+    private static final String SOURCE_KEY = "blobs/aa/bb/imagem";
+
+    @TempDir
+    Path storageRoot;
+
+    private FileRepository fileRepository;
+    private LocalFileSystemStorageService storageService;
+    private FilePreviewService filePreviewService;
+
+    @BeforeEach
+    void setUp() {
+        fileRepository = mock(FileRepository.class);
+        storageService = new LocalFileSystemStorageService(storageRoot.toString());
+        filePreviewService = new FilePreviewService(fileRepository, storageService, 1, 10, 52428800L, 1_000_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filePreviewService.shutdown();
+    }
+
+    @Test
+    void thumbnailIsGeneratedForImageWithinLimit() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "png", png);
+        storeImage(png.toByteArray());
+
+        filePreviewService.schedule(FILE_ID);
+
+        String thumbnailKey = SOURCE_KEY + ".thumbnail.jpg";
+        verify(fileRepository, timeout(5000)).savePreview(FILE_ID, SOURCE_KEY, PreviewStatus.READY, thumbnailKey, null);
+        BufferedImage thumbnail = ImageIO.read(Channels.newInputStream(storageService.open(thumbnailKey)));
+        assertThat(thumbnail.getWidth()).isEqualTo(320);
+        assertThat(thumbnail.getHeight()).isEqualTo(240);
+    }
+
+    @Test
+    void imageAbovePixelLimitIsRefusedBeforeDecoding() throws Exception {
+        // Cabeçalho declarando 100000x100000 pixels: decodificada, a imagem ocuparia dezenas de GB.
+        storeImage(pngHeader(100_000, 100_000));
+
+        filePreviewService.schedule(FILE_ID);
+
+        verify(fileRepository, timeout(5000)).savePreview(eq(FILE_ID), eq(SOURCE_KEY), eq(PreviewStatus.FAILED),
+                isNull(), isNull());
+    }
+
+    private void storeImage(byte[] content) {
+        long size = storageService.store(SOURCE_KEY, Channels.newChannel(new ByteArrayInputStream(content)));
+        File file = File.builder()
+                .fileType(FileType.PNG)
+                .fileSize(size)
+                .filePath(SOURCE_KEY)
+                .previewStatus(PreviewStatus.PENDING)
+                .build();
+        file.setId(FILE_ID);
+        when(fileRepository.findById(FILE_ID)).thenReturn(Optional.of(file));
+    }
+
+    /**
+     * PNG contendo apenas assinatura, IHDR com as dimensões informadas e IEND.
+     */
+    private static byte[] pngHeader(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+        out.write(chunk("IHDR", ByteBuffer.allocate(13).putInt(width).putInt(height)
+                .put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0).array()));
+        out.write(chunk("IEND", new byte[0]));
+        return out.toByteArray();
+    }
+
+    private static byte[] chunk(String type, byte[] data) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        return ByteBuffer.allocate(12 + data.length)
+                .putInt(data.length).put(typeBytes).put(data).putInt((int) crc.getValue())
+                .array();
+    }
+}
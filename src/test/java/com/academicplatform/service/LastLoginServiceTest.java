@@ -0,0 +1,96 @@
+package com.academicplatform.service;
+
+import com.academicplatform.support.PostgresIntegrationTest;
+import com.academicplatform.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Testes do registro write-behind do último login: um UPDATE por usuário com o login mais recente,
+ * sem nunca retroceder a data gravada.
+ *
+ * @author Felipe Oliveira
+ */
+class LastLoginServiceTest extends PostgresIntegrationTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcTemplate batchSpy;
+    private LastLoginService lastLoginService;
+    private long firstUser;
+    private long secondUser;
+
+    @BeforeEach
+    void setUp() {
+        TestData data = new TestData(jdbcTemplate);
+        long institutionId = data.institution();
+        firstUser = data.user(institutionId);
+        secondUser = data.user(institutionId);
+        batchSpy = spy(jdbcTemplate);
+        lastLoginService = new LastLoginService(batchSpy);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesOnlyTheNewestLoginOfEachUser() {
+        lastLoginService.record(firstUser, BASE.minusMinutes(5));
+        lastLoginService.record(firstUser, BASE);
+        lastLoginService.record(firstUser, BASE.minusMinutes(10));
+        lastLoginService.record(secondUser, BASE.minusMinutes(1));
+        lastLoginService.record(secondUser, BASE.minusMinutes(2));
+
+        lastLoginService.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(batchSpy).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getValue()).hasSize(2);
+        assertThat(storedLogin(firstUser)).isEqualTo(BASE);
+        assertThat(storedLogin(secondUser)).isEqualTo(BASE.minusMinutes(1));
+        assertThat(lastLoginService.getPendingUsers()).isZero();
+    }
+
+    @Test
+    void olderLoginNeverMovesStoredDateBackwards() {
+        lastLoginService.record(firstUser, BASE);
+        lastLoginService.flush();
+
+        // Login atrasado (ex.: flush de outro nó) chega depois de um mais recente já gravado.
+        lastLoginService.record(firstUser, BASE.minusHours(1));
+        lastLoginService.flush();
+        assertThat(storedLogin(firstUser)).isEqualTo(BASE);
+
+        lastLoginService.record(firstUser, BASE.plusSeconds(1));
+        lastLoginService.flush();
+        assertThat(storedLogin(firstUser)).isEqualTo(BASE.plusSeconds(1));
+    }
+
+    @Test
+    void pendingLoginIsResolvedAgainstTheStoredOne() {
+        lastLoginService.record(firstUser, BASE.minusMinutes(1));
+
+        assertThat(lastLoginService.resolve(firstUser, BASE)).isEqualTo(BASE);
+        assertThat(lastLoginService.resolve(firstUser, BASE.minusMinutes(2))).isEqualTo(BASE.minusMinutes(1));
+        assertThat(lastLoginService.resolve(secondUser, null)).isNull();
+    }
+
+    private LocalDateTime storedLogin(long userId) {
+        Timestamp stored = jdbcTemplate.queryForObject("SELECT last_login FROM users WHERE id = ?", Timestamp.class, userId);
+        return stored == null ? null : stored.toLocalDateTime();
+    }
+}
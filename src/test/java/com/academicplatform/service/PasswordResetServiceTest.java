@@ -0,0 +1,177 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.request.PasswordResetConfirmRequest;
+import com.academicplatform.dto.request.PasswordResetRequest;
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.repository.PasswordResetTokenRepository;
+import com.academicplatform.repository.UserRepository;
+import com.academicplatform.support.PostgresIntegrationTest;
+import com.academicplatform.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Testes da recuperação de senha: uso único e validade do token, solicitações concorrentes
+ * e remoção dos tokens expirados em lotes.
+ *
+ * @author Felipe Oliveira
+ */
+class PasswordResetServiceTest extends PostgresIntegrationTest {
+
+    private static final String NEW_PASSWORD = "nova-senha-123";
+
+    @Autowired
+    private PasswordResetService passwordResetService;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        TestData data = new TestData(jdbcTemplate);
+        userId = data.user(data.institution());
+        email = jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class, userId);
+    }
+
+    @Test
+    void consumedTokenIsRejected() {
+        String token = passwordResetService.requestReset(new PasswordResetRequest(email), null).orElseThrow();
+
+        passwordResetService.confirmReset(new PasswordResetConfirmRequest(token, NEW_PASSWORD), null);
+
+        assertThat(passwordHashingService.matches(NEW_PASSWORD, storedPassword())).isTrue();
+        assertThatThrownBy(() -> passwordResetService.confirmReset(new PasswordResetConfirmRequest(token, "outra-senha"), null))
+                .isInstanceOf(BusinessException.class);
+        assertThat(passwordHashingService.matches(NEW_PASSWORD, storedPassword())).isTrue();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = passwordResetService.requestReset(new PasswordResetRequest(email), null).orElseThrow();
+        jdbcTemplate.update("UPDATE password_reset_tokens SET expires_at = now() - interval '1 minute' WHERE user_id = ?",
+                userId);
+
+        assertThatThrownBy(() -> passwordResetService.confirmReset(new PasswordResetConfirmRequest(token, NEW_PASSWORD), null))
+                .isInstanceOf(BusinessException.class);
+        assertThat(storedPassword()).isEqualTo("x");
+    }
+
+    @Test
+    void newRequestReplacesPreviousToken() {
+        String first = passwordResetService.requestReset(new PasswordResetRequest(email), null).orElseThrow();
+        String second = passwordResetService.requestReset(new PasswordResetRequest(email), null).orElseThrow();
+
+        assertThat(tokensOfUser()).isEqualTo(1);
+        assertThatThrownBy(() -> passwordResetService.confirmReset(new PasswordResetConfirmRequest(first, NEW_PASSWORD), null))
+                .isInstanceOf(BusinessException.class);
+        passwordResetService.confirmReset(new PasswordResetConfirmRequest(second, NEW_PASSWORD), null);
+        assertThat(tokensOfUser()).isZero();
+    }
+
+    @Test
+    void concurrentRequestsLeaveASingleToken() throws Exception {
+        int requests = 3;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Optional<String>>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                Callable<Optional<String>> request = () -> {
+                    start.await();
+                    return passwordResetService.requestReset(new PasswordResetRequest(email), null);
+                };
+                results.add(executor.submit(request));
+            }
+            start.countDown();
+            for (Future<Optional<String>> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isPresent();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(tokensOfUser()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokensArePurgedInBoundedBatches() {
+        int batchSize = 2;
+        for (int i = 0; i < 5; i++) {
+            insertToken(LocalDateTime.now().minusMinutes(1));
+        }
+        insertToken(LocalDateTime.now().plusMinutes(30));
+        List<Integer> batches = new ArrayList<>();
+        PasswordResetTokenRepository repository = mock(PasswordResetTokenRepository.class, invocation -> {
+            Object result = invocation.getMethod().invoke(passwordResetTokenRepository, invocation.getArguments());
+            if (invocation.getMethod().getName().equals("deleteExpiredBatch")) {
+                batches.add((Integer) result);
+            }
+            return result;
+        });
+        PasswordResetService service = new PasswordResetService(repository, userRepository, passwordHashingService,
+                rateLimitService, transactionManager, 30, batchSize);
+
+        int purged = service.purgeExpired();
+
+        verify(repository, atLeast(3)).deleteExpiredBatch(any(), eq(batchSize));
+        assertThat(batches).allSatisfy(deleted -> assertThat(deleted).isLessThanOrEqualTo(batchSize));
+        assertThat(batches.get(batches.size() - 1)).isLessThan(batchSize);
+        assertThat(purged).isEqualTo(batches.stream().mapToInt(Integer::intValue).sum()).isGreaterThanOrEqualTo(5);
+        assertThat(tokensOfUser()).isEqualTo(1);
+    }
+
+    private void insertToken(LocalDateTime expiresAt) {
+        jdbcTemplate.update("INSERT INTO password_reset_tokens (user_id, token_hash, expires_at, created_at) "
+                + "VALUES (?, ?, ?, now())", userId, UUID.randomUUID().toString().replace("-", ""), expiresAt);
+    }
+
+    private int tokensOfUser() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM password_reset_tokens WHERE user_id = ?",
+                Integer.class, userId);
+    }
+
+    private String storedPassword() {
+        return jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = ?", String.class, userId);
+    }
+}
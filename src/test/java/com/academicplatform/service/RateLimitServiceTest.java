@@ -0,0 +1,34 @@
+package com.academicplatform.service;
+
+import com.academicplatform.exception.RateLimitExceededException;
+import com.academicplatform.security.InMemoryRateLimitStore;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Testes das regras de rate limit sobre o store em memória: cada fluxo consome do próprio bucket.
+ *
+ * @author Felipe Oliveira
+ */
+class RateLimitServiceTest {
+
+    private static final String IP = "203.0.113.7";
+
+    private final RateLimitService rateLimitService = new RateLimitService(new InMemoryRateLimitStore(1000, 60),
+            5, 300, 30, 60, 3, 3600, 2, 3600, 2, 3600);
+
+    @Test
+    void confirmationsDoNotSpendResetRequestsOfTheSameIp() {
+        rateLimitService.checkPasswordResetConfirm(IP);
+        rateLimitService.checkPasswordResetConfirm(IP);
+        assertThatThrownBy(() -> rateLimitService.checkPasswordResetConfirm(IP))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        assertThatCode(() -> rateLimitService.checkPasswordReset("a@test.local", IP)).doesNotThrowAnyException();
+        assertThatCode(() -> rateLimitService.checkPasswordReset("b@test.local", IP)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> rateLimitService.checkPasswordReset("c@test.local", IP))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+}
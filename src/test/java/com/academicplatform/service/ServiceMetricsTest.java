@@ -0,0 +1,43 @@
+package com.academicplatform.service;
+
+import com.academicplatform.support.PostgresIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que as estatísticas dos caches e do pool de hashing são publicadas no MeterRegistry.
+ *
+ * @author Felipe Oliveira
+ */
+class ServiceMetricsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void cacheStatisticsAreRegistered() {
+        for (String cache : new String[]{"file-content", "comment-moderation", "favorite-membership", "jwt-validated"}) {
+            assertThat(meterRegistry.find("cache.gets").tag("cache", cache).functionCounters())
+                    .as("cache.gets de %s", cache)
+                    .isNotEmpty();
+        }
+        assertThat(meterRegistry.find("app.downloads.cache.bytes").gauge()).isNotNull();
+    }
+
+    @Test
+    void hashingPoolMetricsFollowTheService() {
+        double before = meterRegistry.get("app.security.hashing.completed").functionCounter().count();
+
+        passwordHashingService.encode("senha-de-teste");
+
+        assertThat(meterRegistry.get("app.security.hashing.completed").functionCounter().count()).isEqualTo(before + 1);
+        assertThat(meterRegistry.get("app.security.hashing.cost").gauge().value())
+                .isEqualTo(passwordHashingService.getTargetCost());
+    }
+}
@@ -0,0 +1,101 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.Discipline;
+import com.academicplatform.entity.File;
+import com.academicplatform.entity.Institution;
+import com.academicplatform.enums.FileStatus;
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.repository.DisciplineRepository;
+import com.academicplatform.repository.InstitutionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes da cota de armazenamento em memória, sem banco: o uso persistido vem de um repositório simulado.
+ *
+ * @author Felipe Oliveira
+ */
+class StorageQuotaServiceTest {
+
+    private static final long GB = 1024L * 1024L * 1024L;
+    private static final long INSTITUTION_ID = 1L;
+
+    private InstitutionRepository institutionRepository;
+    private StorageQuotaService storageQuotaService;
+    private Institution institution;
+
+    @BeforeEach
+    void setUp() {
+        institutionRepository = mock(InstitutionRepository.class);
+        when(institutionRepository.findStorageUsedBytesById(INSTITUTION_ID)).thenReturn(Optional.of(0L));
+        storageQuotaService = new StorageQuotaService(institutionRepository);
+        institution = Institution.builder().maxStorageGB(1).build();
+        institution.setId(INSTITUTION_ID);
+    }
+
+    @Test
+    void reservationBeyondLimitIsRejected() {
+        storageQuotaService.reserve(institution, GB / 2);
+
+        assertThatThrownBy(() -> storageQuotaService.reserve(institution, GB / 2 + 1))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void restoringRejectedFileBeyondLimitIsRejected() {
+        StorageUsageService storageUsageService = new StorageUsageService(
+                mock(DisciplineRepository.class), institutionRepository, storageQuotaService);
+        storageQuotaService.reserve(institution, GB / 2).commit();
+        Discipline discipline = Discipline.builder().institution(institution).build();
+        discipline.setId(1L);
+        File file = File.builder()
+                .discipline(discipline)
+                .institution(institution)
+                .fileSize(GB / 2 + 1)
+                .status(FileStatus.APPROVED)
+                .build();
+
+        assertThatThrownBy(() -> storageUsageService.statusChanged(file, FileStatus.REJECTED))
+                .isInstanceOf(BusinessException.class);
+        assertThat(storageQuotaService.getUsedBytes(INSTITUTION_ID)).isEqualTo(GB / 2);
+        verify(institutionRepository, never()).addStorageUsage(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void invalidateKeepsPendingReservations() {
+        StorageQuotaService.QuotaReservation pending = storageQuotaService.reserve(institution, GB / 2);
+
+        storageQuotaService.invalidate(INSTITUTION_ID);
+
+        assertThat(storageQuotaService.getUsedBytes(INSTITUTION_ID)).isEqualTo(GB / 2);
+        assertThatThrownBy(() -> storageQuotaService.reserve(institution, GB / 2 + 1))
+                .isInstanceOf(BusinessException.class);
+
+        pending.release();
+        assertThat(storageQuotaService.getUsedBytes(INSTITUTION_ID)).isZero();
+    }
+
+    @Test
+    void invalidateReloadsPersistedUsageAfterCommit() {
+        StorageQuotaService.QuotaReservation reservation = storageQuotaService.reserve(institution, GB / 4);
+        reservation.commit();
+        when(institutionRepository.findStorageUsedBytesById(INSTITUTION_ID)).thenReturn(Optional.of(GB / 4));
+        StorageQuotaService.QuotaReservation pending = storageQuotaService.reserve(institution, GB / 4);
+
+        storageQuotaService.invalidate(INSTITUTION_ID);
+
+        assertThat(storageQuotaService.getUsedBytes(INSTITUTION_ID)).isEqualTo(GB / 2);
+        pending.release();
+        assertThat(storageQuotaService.getUsedBytes(INSTITUTION_ID)).isEqualTo(GB / 4);
+    }
+}
@@ -0,0 +1,173 @@
+package com.academicplatform.service;
+
+import com.academicplatform.entity.Discipline;
+import com.academicplatform.entity.File;
+import com.academicplatform.entity.Institution;
+import com.academicplatform.enums.FileStatus;
+import com.academicplatform.repository.FileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Testes do ranking de trending com relógio controlado: decaimento, limite de candidatos,
+ * mudança do instante de referência e remoção de arquivos que deixam de estar aprovados.
+ *
+ * @author Felipe Oliveira
+ */
+class TrendingServiceTest {
+
+    private static final double HALF_LIFE_HOURS = 1;
+    private static final long DISCIPLINE_ID = 10L;
+    private static final long INSTITUTION_ID = 20L;
+
+    private MutableClock clock;
+    private Discipline discipline;
+    private Institution institution;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        discipline = Discipline.builder().build();
+        discipline.setId(DISCIPLINE_ID);
+        institution = Institution.builder().build();
+        institution.setId(INSTITUTION_ID);
+    }
+
+    @Test
+    void recentLighterScoreOvertakesOldHeavierOneAfterHalfLives() {
+        TrendingService trending = trending(5, 5);
+
+        download(trending, 1L, 10);
+        clock.advance(Duration.ofHours(4));
+        download(trending, 2L, 1);
+        trending.snapshot();
+        // 10 downloads após 4 meias-vidas valem 10/16 de um download recente.
+        assertThat(trending.topByDiscipline(DISCIPLINE_ID, 5)).containsExactly(2L, 1L);
+        assertThat(trending.topByInstitution(INSTITUTION_ID, 5)).containsExactly(2L, 1L);
+
+        download(trending, 3L, 1);
+        download(trending, 3L, 1);
+        trending.snapshot();
+        assertThat(trending.topByDiscipline(DISCIPLINE_ID, 5)).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void newCandidateEvictsLowestOnlyWhenItScoresMore() {
+        TrendingService trending = trending(2, 2);
+
+        download(trending, 1L, 3);
+        download(trending, 2L, 2);
+        download(trending, 3L, 1);
+        trending.snapshot();
+        assertThat(trending.topByDiscipline(DISCIPLINE_ID, 5)).containsExactly(1L, 2L);
+
+        // Após 2 meias-vidas um download novo vale 4 dos antigos: supera o arquivo 2 (2) e o arquivo 1 (3).
+        clock.advance(Duration.ofHours(2));
+        download(trending, 3L, 1);
+        trending.snapshot();
+        assertThat(trending.topByDiscipline(DISCIPLINE_ID, 5)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void rebaseKeepsRankingOrder() {
+        TrendingService trending = trending(5, 5);
+
+        // Perto do limite do expoente (500): 700 meias-vidas ≈ 485.
+        clock.advance(Duration.ofHours(700));
+        download(trending, 1L, 3);
+        download(trending, 2L, 2);
+        download(trending, 3L, 1);
+        clock.advance(Duration.ofHours(30));
+        trending.snapshot();
+        assertThat(trending.topByDiscipline(DISCIPLINE_ID, 5)).containsExactly(1L, 2L, 3L);
+
+        // Pontuações reescaladas continuam comparáveis com eventos gravados depois da mudança de referência.
+        download(trending, 4L, 1);
+        trending.snapshot();
+        assertThat(trending.topByDiscipline(DISCIPLINE_ID, 5)).containsExactly(4L, 1L, 2L, 3L);
+        assertThat(trending.topByInstitution(INSTITUTION_ID, 5)).containsExactly(4L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void removedFileLeavesRankingAndFreesItsSlot() {
+        TrendingService trending = trending(2, 2);
+        download(trending, 1L, 3);
+        download(trending, 2L, 2);
+
+        trending.remove(1L, DISCIPLINE_ID, INSTITUTION_ID);
+        download(trending, 3L, 1);
+        trending.snapshot();
+
+        assertThat(trending.topByDiscipline(DISCIPLINE_ID, 5)).containsExactly(2L, 3L);
+        assertThat(trending.topByInstitution(INSTITUTION_ID, 5)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void downloadsOfFilesNotApprovedAreIgnored() {
+        TrendingService trending = trending(5, 5);
+
+        download(trending, 1L, 1);
+        trending.recordDownload(file(2L, FileStatus.REJECTED));
+        trending.recordDownload(file(3L, FileStatus.PENDING));
+        trending.snapshot();
+
+        assertThat(trending.topByDiscipline(DISCIPLINE_ID, 5)).containsExactly(1L);
+    }
+
+    private TrendingService trending(int topK, int candidates) {
+        return new TrendingService(mock(FileRepository.class), HALF_LIFE_HOURS, 1.0, 3.0, topK, candidates, clock);
+    }
+
+    private void download(TrendingService trending, Long fileId, int times) {
+        File file = file(fileId, FileStatus.APPROVED);
+        for (int i = 0; i < times; i++) {
+            trending.recordDownload(file);
+        }
+    }
+
+    private File file(Long id, FileStatus status) {
+        File file = File.builder().status(status).discipline(discipline).institution(institution).build();
+        file.setId(id);
+        return file;
+    }
+
+    /**
+     * Relógio ajustável manualmente pelos testes.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
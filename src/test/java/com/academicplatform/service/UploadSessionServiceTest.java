@@ -0,0 +1,114 @@
+package com.academicplatform.service;
+
+import com.academicplatform.dto.request.FileRequest;
+import com.academicplatform.dto.response.FileResponse;
+import com.academicplatform.dto.response.UploadSessionResponse;
+import com.academicplatform.enums.FileType;
+import com.academicplatform.enums.UploadSessionStatus;
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.exception.PayloadTooLargeException;
+import com.academicplatform.support.PostgresIntegrationTest;
+import com.academicplatform.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Testes do upload em partes: limite de tamanho das partes e finalização em duas etapas (COMPLETING).
+ *
+ * @author Felipe Oliveira
+ */
+class UploadSessionServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long disciplineId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        TestData data = new TestData(jdbcTemplate);
+        long institutionId = data.institution();
+        disciplineId = data.discipline(institutionId);
+        userId = data.user(institutionId);
+    }
+
+    @Test
+    void oversizedChunkIsRejectedAndNotStored() {
+        byte[] content = uniqueContent();
+        UploadSessionResponse session = initiate(content.length);
+        byte[] oversized = new byte[content.length + 1];
+
+        assertThatThrownBy(() -> uploadSessionService.uploadChunk(session.getUploadId(), 0, userId, channelOf(oversized)))
+                .isInstanceOf(PayloadTooLargeException.class);
+        assertThat(uploadSessionService.getStatus(session.getUploadId(), userId).getReceivedChunks()).isEmpty();
+    }
+
+    @Test
+    void completeCreatesFileAndIsIdempotent() {
+        byte[] content = uniqueContent();
+        UploadSessionResponse session = initiate(content.length);
+        uploadSessionService.uploadChunk(session.getUploadId(), 0, userId, channelOf(content));
+
+        FileResponse created = uploadSessionService.complete(session.getUploadId(), userId);
+
+        UploadSessionResponse status = uploadSessionService.getStatus(session.getUploadId(), userId);
+        assertThat(status.getStatus()).isEqualTo(UploadSessionStatus.COMPLETED);
+        assertThat(status.getFileId()).isEqualTo(created.getId());
+        assertThat(uploadSessionService.complete(session.getUploadId(), userId).getId()).isEqualTo(created.getId());
+    }
+
+    @Test
+    void completionInProgressIsRejectedUntilItTimesOut() {
+        byte[] content = uniqueContent();
+        UploadSessionResponse session = initiate(content.length);
+        uploadSessionService.uploadChunk(session.getUploadId(), 0, userId, channelOf(content));
+
+        markCompleting(session.getUploadId(), "now()");
+        assertThatThrownBy(() -> uploadSessionService.complete(session.getUploadId(), userId))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("em andamento");
+        assertThat(uploadSessionService.getStatus(session.getUploadId(), userId).getReceivedChunks()).containsExactly(0);
+
+        markCompleting(session.getUploadId(), "now() - interval '1 day'");
+        FileResponse created = uploadSessionService.complete(session.getUploadId(), userId);
+        assertThat(uploadSessionService.getStatus(session.getUploadId(), userId).getFileId()).isEqualTo(created.getId());
+    }
+
+    private UploadSessionResponse initiate(int size) {
+        FileRequest request = FileRequest.builder()
+                .title("Notas")
+                .fileName("notas.txt")
+                .fileType(FileType.TXT)
+                .fileSize((long) size)
+                .disciplineId(disciplineId)
+                .build();
+        return uploadSessionService.initiate(request, userId);
+    }
+
+    private void markCompleting(String uploadId, String startedAt) {
+        jdbcTemplate.update("UPDATE upload_sessions SET status = 'COMPLETING', completion_started_at = "
+                + startedAt + " WHERE upload_id = ?", uploadId);
+    }
+
+    private static byte[] uniqueContent() {
+        return ("parte " + UUID.randomUUID()).getBytes();
+    }
+
+    private static ReadableByteChannel channelOf(byte[] content) {
+        return Channels.newChannel(new ByteArrayInputStream(content));
+    }
+}
@@ -0,0 +1,36 @@
+package com.academicplatform.storage;
+
+import com.academicplatform.exception.BusinessException;
+import com.academicplatform.exception.RangeNotSatisfiableException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Felipe Oliveira
+ */
+class ByteRangeTest {
+
+    @Test
+    void parsesClosedOpenAndSuffixRanges() {
+        assertThat(ByteRange.parse("bytes=10-19", 100).length()).isEqualTo(10);
+        assertThat(ByteRange.parse("bytes=90-", 100).getEnd()).isEqualTo(99);
+        assertThat(ByteRange.parse("bytes=-5", 100).getStart()).isEqualTo(95);
+        assertThat(ByteRange.parse(null, 100)).isNull();
+    }
+
+    @Test
+    void rangeBeyondContentIsNotSatisfiable() {
+        assertThatThrownBy(() -> ByteRange.parse("bytes=100-", 100))
+                .isInstanceOfSatisfying(RangeNotSatisfiableException.class,
+                        e -> assertThat(e.toContentRange()).isEqualTo("bytes */100"));
+    }
+
+    @Test
+    void malformedHeaderIsRejected() {
+        assertThatThrownBy(() -> ByteRange.parse("items=0-1", 100))
+                .isInstanceOf(BusinessException.class)
+                .isNotInstanceOf(RangeNotSatisfiableException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.academicplatform.storage;
+
+import com.academicplatform.exception.PayloadTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Felipe Oliveira
+ */
+class SizeLimitedReadableByteChannelTest {
+
+    @Test
+    void contentWithinLimitIsReadEntirely() throws IOException {
+        ReadableByteChannel channel = limited(100, 100);
+
+        assertThat(drain(channel)).isEqualTo(100);
+    }
+
+    @Test
+    void contentOverLimitIsRejectedAfterAtMostOneExtraByte() {
+        CountingChannel source = new CountingChannel(channelOf(10_000));
+        ReadableByteChannel channel = new SizeLimitedReadableByteChannel(source, 100, "muito grande");
+
+        assertThatThrownBy(() -> drain(channel)).isInstanceOf(PayloadTooLargeException.class);
+        assertThat(source.read).isEqualTo(101);
+    }
+
+    private static ReadableByteChannel limited(int size, long maxBytes) {
+        return new SizeLimitedReadableByteChannel(channelOf(size), maxBytes, "muito grande");
+    }
+
+    private static ReadableByteChannel channelOf(int size) {
+        return Channels.newChannel(new ByteArrayInputStream(new byte[size]));
+    }
+
+    private static long drain(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long total = 0;
+        int n;
+        while ((n = channel.read(buffer)) >= 0) {
+            total += n;
+            buffer.clear();
+        }
+        return total;
+    }
+
+    private static final class CountingChannel implements ReadableByteChannel {
+
+        private final ReadableByteChannel source;
+        private long read;
+
+        private CountingChannel(ReadableByteChannel source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int n = source.read(dst);
+            if (n > 0) {
+                read += n;
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return source.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+}
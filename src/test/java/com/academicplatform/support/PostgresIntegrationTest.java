@@ -0,0 +1,62 @@
+package com.academicplatform.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Base dos testes de integração: sobe a aplicação completa contra um PostgreSQL embarcado,
+ * com o schema criado pelas migrations Flyway. O banco é compartilhado por todas as subclasses
+ * (e pelo contexto Spring em cache); cada teste deve criar seus próprios dados.
+ *
+ * @author Felipe Oliveira
+ */
+@SpringBootTest
+public abstract class PostgresIntegrationTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+    private static final Path STORAGE_ROOT = createStorageRoot();
+    private static final String JWT_SECRET = randomJwtSecret();
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                StatementCounter.class::getName);
+        registry.add("app.storage.local.root-dir", STORAGE_ROOT::toString);
+        registry.add("app.security.jwt.secret", () -> JWT_SECRET);
+    }
+
+    private static String randomJwtSecret() {
+        byte[] key = new byte[64];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path createStorageRoot() {
+        try {
+            return Files.createTempDirectory("academic-platform-storage");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
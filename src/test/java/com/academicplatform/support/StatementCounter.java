@@ -0,0 +1,44 @@
+package com.academicplatform.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registra os statements SQL preparados pelo Hibernate na thread atual.
+ * O registro é por thread para não incluir statements de jobs agendados rodando em paralelo.
+ *
+ * @author Felipe Oliveira
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    /**
+     * Descarta os statements registrados na thread atual.
+     */
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    /**
+     * Quantidade de statements preparados na thread atual desde o último reset.
+     */
+    public static int count() {
+        return STATEMENTS.get().size();
+    }
+
+    /**
+     * SQL dos statements preparados na thread atual desde o último reset, na ordem de preparação.
+     */
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+}
@@ -0,0 +1,67 @@
+package com.academicplatform.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+/**
+ * Inserção direta de dados de teste via JDBC, sem passar pelos services.
+ * Nomes, códigos e emails recebem sufixo aleatório para não colidir entre testes no mesmo banco.
+ *
+ * @author Felipe Oliveira
+ */
+public final class TestData {
+
+    private final JdbcTemplate jdbc;
+
+    public TestData(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public long institution() {
+        String suffix = suffix();
+        return jdbc.queryForObject("INSERT INTO institutions (name, code, plan, max_users, max_storagegb, active, created_at) "
+                + "VALUES (?, ?, 'PREMIUM', 1000, 100, true, now()) RETURNING id",
+                Long.class, "Instituição " + suffix, "I" + suffix);
+    }
+
+    public long discipline(long institutionId) {
+        String suffix = suffix();
+        return jdbc.queryForObject("INSERT INTO disciplines (name, code, institution_id, active, created_at) "
+                + "VALUES (?, ?, ?, true, now()) RETURNING id",
+                Long.class, "Disciplina " + suffix, "D" + suffix, institutionId);
+    }
+
+    public long user(long institutionId) {
+        String suffix = suffix();
+        return jdbc.queryForObject("INSERT INTO users (name, email, password, role, institution_id, active, created_at) "
+                + "VALUES (?, ?, 'x', 'STUDENT', ?, true, now()) RETURNING id",
+                Long.class, "Usuário " + suffix, suffix + "@test.local", institutionId);
+    }
+
+    /**
+     * Insere count arquivos na disciplina com o status informado.
+     */
+    public void files(long disciplineId, long institutionId, long uploadedBy, String status, int count) {
+        jdbc.update("INSERT INTO files (title, file_name, file_type, file_size, discipline_id, institution_id, "
+                + "uploaded_by, status, download_count, created_at) "
+                + "SELECT 'Arquivo ' || g, 'arquivo' || g || '.pdf', 'PDF', 1024, ?, ?, ?, ?, 0, "
+                + "now() - (g || ' seconds')::interval FROM generate_series(1, ?) g",
+                disciplineId, institutionId, uploadedBy, status, count);
+    }
+
+    /**
+     * Favorita, para o usuário, até count arquivos aprovados da disciplina ainda não favoritados.
+     */
+    public void favorites(long userId, long disciplineId, int count) {
+        jdbc.update("INSERT INTO favorites (user_id, file_id, created_at) "
+                + "SELECT ?, f.id, now() FROM files f WHERE f.discipline_id = ? AND f.status = 'APPROVED' "
+                + "AND NOT EXISTS (SELECT 1 FROM favorites fav WHERE fav.user_id = ? AND fav.file_id = f.id) "
+                + "ORDER BY f.id LIMIT ?",
+                userId, disciplineId, userId, count);
+    }
+
+    private static String suffix() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+}
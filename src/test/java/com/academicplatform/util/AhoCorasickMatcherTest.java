@@ -0,0 +1,76 @@
+package com.academicplatform.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes do autômato de moderação: normalização, palavras inteiras e saídas pelos links de falha.
+ *
+ * @author Felipe Oliveira
+ */
+class AhoCorasickMatcherTest {
+
+    @Test
+    void accentsAndCaseAreFolded() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.compile(List.of("acao"));
+
+        assertThat(matcher.findAll("Que AÇÃO foi essa?")).containsExactly("acao");
+        assertThat(AhoCorasickMatcher.compile(List.of("Ação")).findAll("uma acao qualquer")).containsExactly("acao");
+    }
+
+    @Test
+    void onlyWholeWordsMatch() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.compile(List.of("bobo"));
+
+        assertThat(matcher.findAll("que bobagem, seu bobo!")).containsExactly("bobo");
+        assertThat(matcher.matches("bobolândia")).isFalse();
+        assertThat(matcher.matches("abobo")).isFalse();
+        assertThat(matcher.matches("bobo2")).isFalse();
+    }
+
+    @Test
+    void overlappingTermsAreFoundThroughFailLinks() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.compile(List.of("he", "she", "hers", "his"));
+
+        assertThat(matcher.findAll("she")).containsExactly("she");
+        assertThat(matcher.findAll("hers")).containsExactly("hers");
+        assertThat(matcher.findAll("ushers")).isEmpty();
+        assertThat(matcher.findAll("she said he and his hers")).containsExactly("she", "he", "his", "hers");
+    }
+
+    @Test
+    void overlappingTermsMatchWhenBothAreWholeWords() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.compile(List.of("sem noção", "noção"));
+
+        assertThat(matcher.findAll("isso é sem noção")).containsExactlyInAnyOrder("sem nocao", "nocao");
+    }
+
+    @Test
+    void whitespaceIsCollapsedInTermsAndText() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.compile(List.of("  cara   de  pau "));
+
+        assertThat(matcher.findAll("que cara\tde\n\npau")).containsExactly("cara de pau");
+        assertThat(matcher.matches("caradepau")).isFalse();
+    }
+
+    @Test
+    void emptyTermListNeverMatches() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.compile(List.of("", "   "));
+
+        assertThat(matcher.isEmpty()).isTrue();
+        assertThat(matcher.findAll("qualquer texto")).isEmpty();
+        assertThat(AhoCorasickMatcher.compile(List.of()).matches("qualquer texto")).isFalse();
+        assertThat(AhoCorasickMatcher.empty().matches("")).isFalse();
+    }
+
+    @Test
+    void repeatedTermsAreReportedOnce() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.compile(List.of("chato", "CHATO"));
+
+        assertThat(matcher.size()).isEqualTo(1);
+        assertThat(matcher.findAll("chato, muito chato")).containsExactly("chato");
+    }
+}